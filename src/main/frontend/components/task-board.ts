@@ -0,0 +1,399 @@
+import '@vaadin/button';
+import '@vaadin/icon';
+import '@vaadin/icons';
+import { html, LitElement, nothing, type PropertyValues } from 'lit';
+import { customElement, property, state } from 'lit/decorators.js';
+import { repeat } from 'lit/directives/repeat.js';
+
+/**
+ * A card as sent by the server; all texts are already formatted for display.
+ */
+interface BoardCard {
+  id: number;
+  version: number;
+  status: string;
+  title: string;
+  description: string;
+  /** The due date as ISO date, for sorting; null if there is none. */
+  dueDate: string | null;
+  dueLabel: string;
+  urgent: boolean;
+  duration: string;
+  priority: string | null;
+  priorityLabel: string;
+}
+
+/**
+ * A column as sent by the server, plus the paging state kept in the browser.
+ */
+interface BoardColumn {
+  status: string;
+  title: string;
+  count: number;
+  hasMore: boolean;
+  cards: BoardCard[];
+  /** The number of cards read from the server, the offset of the next page. */
+  loaded?: number;
+  /** The last card read from the server, the keyset cursor of the next page. */
+  cursor?: BoardCard | null;
+  /** Whether the next page was requested and has not arrived yet. */
+  loading?: boolean;
+}
+
+/**
+ * A move not yet sent to the server.
+ */
+interface PendingMove {
+  version: number;
+  from: string;
+  to: string;
+}
+
+/**
+ * How long moves are collected before they are sent to the server together.
+ */
+const MOVE_BATCH_DELAY = 250;
+
+/**
+ * How close to the end of a column the next page is requested, in pixels.
+ */
+const LOAD_MORE_THRESHOLD = 100;
+
+/**
+ * Orders the cards of a column like the column queries: by due date, cards without one first, then by ID.
+ */
+function compareCards(a: BoardCard, b: BoardCard): number {
+  if (a.dueDate !== b.dueDate) {
+    if (a.dueDate === null) return -1;
+    if (b.dueDate === null) return 1;
+    return a.dueDate < b.dueDate ? -1 : 1;
+  }
+  return a.id - b.id;
+}
+
+/**
+ * The Kanban board. The server sends the cards of all columns as one JSON payload and
+ * patches single cards afterwards; rendering, drag and drop and the selection happen
+ * entirely in the browser. Moves are applied optimistically and sent to the server in
+ * batches as a single `cards-moved` event.
+ *
+ * Events: `cards-moved` (`detail.moves`: `[id, version, status]` per move),
+ * `card-edit` and `card-delete` (`detail.id`) and
+ * `load-more` (`detail.status`, `detail.afterId`, `detail.afterDueDate`, `detail.loaded`).
+ */
+@customElement('task-board')
+export class TaskBoard extends LitElement {
+
+  /** The columns with their cards; replacing them resets the paging state. */
+  @property({ attribute: false })
+  columns: BoardColumn[] = [];
+
+  /** Whether the cards are still loading; skeleton cards are shown meanwhile. */
+  @property({ type: Boolean })
+  loading = false;
+
+  /** The number of skeleton cards per column while loading. */
+  @property({ type: Number, attribute: 'skeleton-cards' })
+  skeletonCards = 3;
+
+  @state()
+  private selectedId: number | null = null;
+
+  @state()
+  private draggedId: number | null = null;
+
+  @state()
+  private dropStatus: string | null = null;
+
+  private readonly pendingMoves = new Map<number, PendingMove>();
+
+  private flushTimer?: number;
+
+  /**
+   * Renders into the light DOM, so the theme styles the board like the rest of the view.
+   */
+  protected override createRenderRoot() {
+    return this;
+  }
+
+  override disconnectedCallback() {
+    this.flushMoves();
+    super.disconnectedCallback();
+  }
+
+  protected override willUpdate(changed: PropertyValues<this>) {
+    if (changed.has('columns')) {
+      for (const column of this.columns) {
+        column.loaded = column.cards.length;
+        column.cursor = column.cards.length ? column.cards[column.cards.length - 1] : null;
+        column.loading = false;
+      }
+    }
+  }
+
+  /**
+   * Appends the next page of a column; cards already shown, e.g. dropped into the column, are skipped.
+   */
+  appendCards(status: string, cards: BoardCard[], hasMore: boolean) {
+    const column = this.column(status);
+    if (!column) return;
+    const shown = new Set(column.cards.map((card) => card.id));
+    column.cards = [...column.cards, ...cards.filter((card) => !shown.has(card.id))];
+    column.loaded = (column.loaded ?? 0) + cards.length;
+    if (cards.length) {
+      column.cursor = cards[cards.length - 1];
+    }
+    column.hasMore = hasMore;
+    column.loading = false;
+    this.requestUpdate();
+  }
+
+  /**
+   * Shows the committed state of a card at its place in its column. The card is dropped if it
+   * comes after the loaded cards of a column with more cards, and ignored if it is older than
+   * the shown card or has a move not yet sent.
+   */
+  upsertCard(card: BoardCard) {
+    const current = this.findCard(card.id);
+    if ((current && current.version > card.version) || this.pendingMoves.has(card.id)) return;
+    this.detach(card.id);
+    const column = this.column(card.status);
+    if (column) {
+      const index = this.insertionIndex(column, card);
+      if (index < column.cards.length || !column.hasMore) {
+        column.cards = [...column.cards.slice(0, index), card, ...column.cards.slice(index)];
+      }
+    }
+    this.requestUpdate();
+  }
+
+  removeCard(id: number) {
+    this.pendingMoves.delete(id);
+    this.detach(id);
+    this.requestUpdate();
+  }
+
+  /**
+   * Shows the committed number of cards per column.
+   */
+  setCounts(counts: Record<string, number>) {
+    for (const column of this.columns) {
+      if (counts[column.status] !== undefined) {
+        column.count = counts[column.status];
+      }
+    }
+    this.requestUpdate();
+  }
+
+  protected override render() {
+    return html`${this.columns.map((column) => this.renderColumn(column))}`;
+  }
+
+  private renderColumn(column: BoardColumn) {
+    const dropTarget = this.dropStatus === column.status ? 'drop-target' : '';
+    return html`
+      <div class="task-board-column" data-status=${column.status}>
+        <span class="task-board-header">${column.title} (${column.count})</span>
+        <div
+          class="task-board-cards ${dropTarget}"
+          @dragover=${(event: DragEvent) => this.onDragOver(event, column)}
+          @dragleave=${(event: DragEvent) => this.onDragLeave(event)}
+          @drop=${(event: DragEvent) => this.onDrop(event, column)}
+          @scroll=${(event: Event) => this.onScroll(event, column)}
+        >
+          ${this.loading
+            ? Array.from({ length: this.skeletonCards }, () => html`<div class="task-card-skeleton"></div>`)
+            : repeat(column.cards, (card) => card.id, (card) => this.renderCard(card))}
+        </div>
+        ${!this.loading && column.hasMore
+          ? html`<vaadin-button ?disabled=${column.loading} @click=${() => this.requestMore(column)}>Mehr laden</vaadin-button>`
+          : nothing}
+      </div>
+    `;
+  }
+
+  private renderCard(card: BoardCard) {
+    const classes = [
+      'task-card',
+      card.id === this.selectedId ? 'selected' : '',
+      card.id === this.draggedId ? 'dragging' : '',
+    ].join(' ');
+    return html`
+      <div
+        class=${classes}
+        draggable="true"
+        @click=${() => (this.selectedId = card.id)}
+        @dragstart=${(event: DragEvent) => this.onDragStart(event, card)}
+        @dragend=${() => this.onDragEnd()}
+      >
+        <div class="task-card-header">
+          <span class="task-card-title">${card.title}</span>
+          <span class="task-card-actions">
+            <vaadin-icon
+              class="task-card-edit"
+              icon="vaadin:edit"
+              title="Bearbeiten"
+              @click=${() => this.fire('card-edit', { id: card.id })}
+            ></vaadin-icon>
+            <vaadin-icon
+              class="task-card-delete"
+              icon="vaadin:trash"
+              title="Löschen"
+              @click=${() => this.fire('card-delete', { id: card.id })}
+            ></vaadin-icon>
+          </span>
+        </div>
+        <span class="task-card-description">${card.description}</span>
+        <span class="task-card-due ${card.urgent ? 'urgent' : ''}">${card.dueLabel}</span>
+        <span class="task-card-duration">${card.duration}</span>
+        <div class="task-card-footer">
+          <span class="task-card-priority" data-priority=${card.priority ?? 'NONE'}>${card.priorityLabel}</span>
+        </div>
+      </div>
+    `;
+  }
+
+  private onDragStart(event: DragEvent, card: BoardCard) {
+    if (event.dataTransfer) {
+      event.dataTransfer.effectAllowed = 'move';
+      event.dataTransfer.setData('text/plain', String(card.id));
+      event.dataTransfer.setDragImage(event.currentTarget as Element, 50, 20);
+    }
+    this.draggedId = card.id;
+  }
+
+  private onDragEnd() {
+    this.draggedId = null;
+    this.dropStatus = null;
+  }
+
+  private onDragOver(event: DragEvent, column: BoardColumn) {
+    if (this.draggedId === null) return;
+    event.preventDefault();
+    this.dropStatus = column.status;
+  }
+
+  private onDragLeave(event: DragEvent) {
+    const container = event.currentTarget as Element;
+    if (!container.contains(event.relatedTarget as Node | null)) {
+      this.dropStatus = null;
+    }
+  }
+
+  private onDrop(event: DragEvent, column: BoardColumn) {
+    event.preventDefault();
+    const id = this.draggedId;
+    this.onDragEnd();
+    if (id !== null) {
+      this.moveCard(id, column.status);
+    }
+  }
+
+  private onScroll(event: Event, column: BoardColumn) {
+    const container = event.currentTarget as Element;
+    if (container.scrollTop + container.clientHeight >= container.scrollHeight - LOAD_MORE_THRESHOLD) {
+      this.requestMore(column);
+    }
+  }
+
+  /**
+   * Moves a card to another column at once and queues the move for the next batch.
+   * A card moved back to the column it started in needs no move at all.
+   */
+  private moveCard(id: number, to: string) {
+    const from = this.columns.find((column) => column.cards.some((card) => card.id === id));
+    const target = this.column(to);
+    if (!from || !target || from === target) return;
+
+    const card = from.cards.find((shown) => shown.id === id)!;
+    from.cards = from.cards.filter((shown) => shown !== card);
+    from.count--;
+    const moved = { ...card, status: to };
+    const index = this.insertionIndex(target, moved);
+    target.cards = [...target.cards.slice(0, index), moved, ...target.cards.slice(index)];
+    target.count++;
+
+    const pending = this.pendingMoves.get(id);
+    if (pending && pending.from === to) {
+      this.pendingMoves.delete(id);
+    } else {
+      this.pendingMoves.set(id, { version: pending?.version ?? card.version, from: pending?.from ?? from.status, to });
+    }
+    this.requestUpdate();
+
+    window.clearTimeout(this.flushTimer);
+    this.flushTimer = window.setTimeout(() => this.flushMoves(), MOVE_BATCH_DELAY);
+  }
+
+  /**
+   * Sends the queued moves as one event. Every successful move increases the version of its
+   * task by one, so the shown cards take that version at once and can be moved again before
+   * the server answers.
+   */
+  private flushMoves() {
+    window.clearTimeout(this.flushTimer);
+    this.flushTimer = undefined;
+    if (!this.pendingMoves.size) return;
+
+    const moves: [number, number, string][] = [];
+    for (const [id, move] of this.pendingMoves) {
+      moves.push([id, move.version, move.to]);
+      const card = this.findCard(id);
+      if (card) {
+        card.version = move.version + 1;
+      }
+    }
+    this.pendingMoves.clear();
+    this.fire('cards-moved', { moves });
+  }
+
+  private requestMore(column: BoardColumn) {
+    if (!column.hasMore || column.loading) return;
+    column.loading = true;
+    this.requestUpdate();
+    this.fire('load-more', {
+      status: column.status,
+      afterId: column.cursor?.id ?? null,
+      afterDueDate: column.cursor?.dueDate ?? null,
+      loaded: column.loaded ?? 0,
+    });
+  }
+
+  /**
+   * The position of a card in a column; a card that comes after all loaded cards goes last.
+   */
+  private insertionIndex(column: BoardColumn, card: BoardCard): number {
+    const index = column.cards.findIndex((shown) => compareCards(shown, card) > 0);
+    return index < 0 ? column.cards.length : index;
+  }
+
+  private detach(id: number) {
+    for (const column of this.columns) {
+      if (column.cards.some((card) => card.id === id)) {
+        column.cards = column.cards.filter((card) => card.id !== id);
+      }
+    }
+  }
+
+  private findCard(id: number): BoardCard | undefined {
+    for (const column of this.columns) {
+      const card = column.cards.find((shown) => shown.id === id);
+      if (card) return card;
+    }
+    return undefined;
+  }
+
+  private column(status: string): BoardColumn | undefined {
+    return this.columns.find((column) => column.status === status);
+  }
+
+  private fire(type: string, detail: object) {
+    this.dispatchEvent(new CustomEvent(type, { detail }));
+  }
+}
+
+declare global {
+  interface HTMLElementTagNameMap {
+    'task-board': TaskBoard;
+  }
+}
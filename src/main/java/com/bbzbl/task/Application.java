@@ -1,6 +1,7 @@
 package com.bbzbl.task;
 
 import com.vaadin.flow.component.page.AppShellConfigurator;
+import com.vaadin.flow.component.page.Push;
 import com.vaadin.flow.theme.Theme;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -8,9 +9,11 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 /**
  * Main application class for the Task Application.
  * This class serves as the entry point for the Spring Boot application.
- * It also configures the theme for the Vaadin application.
+ * It also configures the theme for the Vaadin application and enables server push,
+ * so results computed in the background reach the browser without a new request.
  */
 @SpringBootApplication
+@Push
 @Theme(value = "426-taskapp")
 public class Application implements AppShellConfigurator {
 
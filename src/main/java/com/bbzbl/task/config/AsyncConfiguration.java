@@ -0,0 +1,57 @@
+package com.bbzbl.task.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.security.concurrent.DelegatingSecurityContextScheduledExecutorService;
+import org.springframework.security.task.DelegatingSecurityContextAsyncTaskExecutor;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for work that views run off the request thread, such as searches and the
+ * asynchronous reads of the services. Tasks run with the security context of the thread
+ * that submitted them, so services can still resolve the authenticated user.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfiguration {
+
+    /**
+     * The executor of the {@code @Async} service reads the views start while rendering.
+     * Every read gets its own virtual thread, so a slow query parks only that thread instead of
+     * a servlet thread; the number of concurrent queries is still bounded by the reader pool.
+     *
+     * @return the virtual thread executor, propagating the security context
+     */
+    @Bean
+    public AsyncTaskExecutor viewExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("taskapp-view-");
+        executor.setVirtualThreads(true);
+        return new DelegatingSecurityContextAsyncTaskExecutor(executor);
+    }
+
+    /**
+     * The executor running debounced searches of the views.
+     *
+     * @param poolSize the number of threads running searches at the same time
+     * @return the scheduled executor, propagating the security context
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService searchExecutor(@Value("${taskapp.search.pool-size:4}") int poolSize) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "taskapp-search-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new DelegatingSecurityContextScheduledExecutorService(
+                Executors.newScheduledThreadPool(poolSize, threadFactory));
+    }
+}
@@ -0,0 +1,96 @@
+package com.bbzbl.task.config;
+
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Checks at application startup that the hot task queries are served by the indexes
+ * created by the schema migrations, using SQLite's {@code EXPLAIN QUERY PLAN}.
+ * A query that would scan the whole task table is reported on the console.
+ */
+@Component
+public class QueryPlanVerifier {
+
+    /**
+     * A query that must be answered through a specific index.
+     *
+     * @param name          a short description used in the console output
+     * @param sql           the query, with parameters as {@code ?}
+     * @param expectedIndex the name of the index the query plan must use
+     */
+    record HotQuery(String name, String sql, String expectedIndex) {
+    }
+
+    private static final List<HotQuery> HOT_QUERIES = List.of(
+            new HotQuery("tasks by status and due date",
+                    "SELECT id FROM task WHERE owner_id = ? AND status = ? AND due_date < ? ORDER BY due_date",
+                    "idx_task_owner_status_due_date"),
+            new HotQuery("dashboard unfinished tasks by due date",
+                    "SELECT id FROM task WHERE owner_id = ? AND status IN (?, ?) AND due_date BETWEEN ? AND ? ORDER BY due_date, id LIMIT ?",
+                    "idx_task_owner_status_due_date"),
+            new HotQuery("board column page",
+                    "SELECT id FROM task WHERE owner_id = ? AND status = ? AND due_date >= ? AND (due_date > ? OR id > ?) ORDER BY due_date, id LIMIT ?",
+                    "idx_task_owner_status_due_date"),
+            new HotQuery("tasks of an owner",
+                    "SELECT id FROM task WHERE owner_id = ?",
+                    "idx_task_owner_"),
+            new HotQuery("tasks by creation time",
+                    "SELECT id FROM task WHERE owner_id = ? ORDER BY created_at DESC",
+                    "idx_task_owner_created_at"),
+            new HotQuery("change feed tail",
+                    "SELECT seq FROM change_log WHERE seq > ? AND node_id <> ? ORDER BY seq LIMIT ?",
+                    "INTEGER PRIMARY KEY")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor for injecting the JDBC template.
+     *
+     * @param jdbcTemplate template bound to the application's data source
+     */
+    public QueryPlanVerifier(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Bean that runs on application startup to verify the query plans of the hot queries.
+     *
+     * @return an ApplicationRunner that logs every hot query not using its index
+     */
+    @Bean
+    public ApplicationRunner verifyQueryPlans() {
+        return args -> {
+            long missing = HOT_QUERIES.stream()
+                    .filter(hotQuery -> !usesExpectedIndex(hotQuery))
+                    .count();
+
+            if (missing == 0) {
+                System.out.println("✅ All " + HOT_QUERIES.size() + " hot queries use their indexes.");
+            }
+        };
+    }
+
+    /**
+     * Explains the query and checks that its plan contains the expected index.
+     *
+     * @param hotQuery the query to check
+     * @return true if the index is used, false otherwise
+     */
+    private boolean usesExpectedIndex(HotQuery hotQuery) {
+        Object[] parameters = new Object[(int) hotQuery.sql().chars().filter(c -> c == '?').count()];
+        List<String> plan = jdbcTemplate.query("EXPLAIN QUERY PLAN " + hotQuery.sql(),
+                (resultSet, rowNum) -> resultSet.getString("detail"), parameters);
+
+        boolean usesIndex = plan.stream().anyMatch(detail -> detail.contains(hotQuery.expectedIndex()));
+        if (!usesIndex) {
+            System.err.println("⚠️ Query '" + hotQuery.name() + "' does not use index " + hotQuery.expectedIndex() + ":");
+            plan.forEach(detail -> System.err.println("   " + detail));
+        }
+        return usesIndex;
+    }
+}
@@ -0,0 +1,103 @@
+package com.bbzbl.task.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Storage configuration for the SQLite database.
+ * <p>
+ * The database runs in WAL mode, so readers never block the writer and vice versa.
+ * SQLite only allows one writer at a time, therefore all writing transactions share a
+ * single dedicated writer connection, while read-only transactions
+ * ({@code @Transactional(readOnly = true)}) are routed to a pool of read-only connections.
+ */
+@Configuration
+public class StorageConfiguration {
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.driver-class-name}")
+    private String driverClassName;
+
+    @Value("${taskapp.datasource.reader-pool-size:4}")
+    private int readerPoolSize;
+
+    @Value("${taskapp.datasource.busy-timeout:5000}")
+    private int busyTimeout;
+
+    /**
+     * The single connection used for every writing transaction.
+     * Transactions start with {@code BEGIN IMMEDIATE}, so the write lock is taken up front
+     * instead of failing with {@code SQLITE_BUSY} when a read is upgraded to a write.
+     *
+     * @return the writer connection pool with exactly one connection
+     */
+    @Bean(destroyMethod = "close")
+    public HikariDataSource writerDataSource() {
+        HikariConfig config = createPoolConfig("taskapp-writer", 1);
+        config.addDataSourceProperty("journal_mode", "WAL");
+        config.addDataSourceProperty("transaction_mode", "IMMEDIATE");
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * The pool of read-only connections used by read-only transactions.
+     * Created after the writer, which switches the database file to WAL mode.
+     *
+     * @param writerDataSource the writer pool, which must be initialized first
+     * @return the reader connection pool
+     */
+    @Bean(destroyMethod = "close")
+    public HikariDataSource readerDataSource(@Qualifier("writerDataSource") HikariDataSource writerDataSource) {
+        HikariConfig config = createPoolConfig("taskapp-reader", readerPoolSize);
+        config.addDataSourceProperty("open_mode", "1");
+        config.setReadOnly(true);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * The application's data source, used by JPA, Flyway and JDBC templates.
+     * The physical connection is only fetched on the first statement, when the
+     * read-only flag of the current transaction is known, and is taken from the reader
+     * pool for read-only transactions and from the writer otherwise.
+     *
+     * @param writerDataSource the writer pool
+     * @param readerDataSource the reader pool
+     * @return the routing data source
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("writerDataSource") DataSource writerDataSource,
+                                 @Qualifier("readerDataSource") DataSource readerDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(writerDataSource);
+        dataSource.setReadOnlyDataSource(readerDataSource);
+        return dataSource;
+    }
+
+    /**
+     * Creates the settings shared by both pools.
+     *
+     * @param poolName the name of the pool, shown in logs
+     * @param size     the fixed number of connections
+     * @return the pool configuration
+     */
+    private HikariConfig createPoolConfig(String poolName, int size) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setJdbcUrl(url);
+        config.setDriverClassName(driverClassName);
+        config.setMaximumPoolSize(size);
+        config.addDataSourceProperty("busy_timeout", String.valueOf(busyTimeout));
+        config.addDataSourceProperty("synchronous", "NORMAL");
+        return config;
+    }
+}
@@ -7,6 +7,7 @@ import java.time.LocalDateTime;
 /**
  * Represents a task entity with attributes such as title, description,
  * priority, due date, duration, and owner.
+ * Status and priority are stored as integer codes, the duration as whole minutes.
  */
 @Entity
 public class Task {
@@ -17,13 +18,22 @@ public class Task {
 
     private String title;
     private String description;
-    private String duration;
-    private String status;
-    private String priority;
+    private Integer durationMinutes;
+    private TaskStatus status;
+    private TaskPriority priority;
     private LocalDate dueDate;
     private LocalDateTime createdAt;
 
-    @ManyToOne
+    /**
+     * Incremented on every change, so concurrent edits of the same task are detected.
+     */
+    @Version
+    private Long version;
+
+    /**
+     * Loaded on first access only; the task views never need the owner's details.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
     private User owner;
 
     /**
@@ -31,9 +41,9 @@ public class Task {
      */
     public Task() {
         this.createdAt = LocalDateTime.now();
-        this.status = "Offen";
+        this.status = TaskStatus.OPEN;
         this.dueDate = LocalDate.now();
-        this.duration = "0h";
+        this.durationMinutes = 0;
     }
 
     /**
@@ -44,7 +54,7 @@ public class Task {
      * @param priority    the priority level
      * @param owner       the user who owns the task
      */
-    public Task(String title, String description, String priority, User owner) {
+    public Task(String title, String description, TaskPriority priority, User owner) {
         this();
         this.title = title;
         this.description = description;
@@ -74,27 +84,27 @@ public class Task {
         this.description = description;
     }
 
-    public String getPriority() {
+    public TaskPriority getPriority() {
         return priority;
     }
 
-    public void setPriority(String priority) {
+    public void setPriority(TaskPriority priority) {
         this.priority = priority;
     }
 
-    public String getDuration() {
-        return duration;
+    public Integer getDurationMinutes() {
+        return durationMinutes;
     }
 
-    public void setDuration(String duration) {
-        this.duration = duration;
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
     }
 
-    public String getStatus() {
+    public TaskStatus getStatus() {
         return status;
     }
 
-    public void setStatus(String status) {
+    public void setStatus(TaskStatus status) {
         this.status = status;
     }
 
@@ -110,6 +120,10 @@ public class Task {
         return createdAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public User getOwner() {
         return owner;
     }
@@ -0,0 +1,40 @@
+package com.bbzbl.task.data.entity;
+
+import java.util.Arrays;
+
+/**
+ * The priority of a {@link Task}, from lowest to highest.
+ * Stored as a small integer code; the codes must never change once they are in the database.
+ * Display labels are defined by the views.
+ */
+public enum TaskPriority {
+
+    LOW(0),
+    MEDIUM(1),
+    HIGH(2),
+    VERY_HIGH(3);
+
+    private final int code;
+
+    TaskPriority(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Returns the priority stored with the given code.
+     *
+     * @param code the database code
+     * @return the priority
+     * @throws IllegalArgumentException if no priority has this code
+     */
+    public static TaskPriority fromCode(int code) {
+        return Arrays.stream(values())
+                .filter(priority -> priority.code == code)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown task priority code: " + code));
+    }
+}
@@ -0,0 +1,21 @@
+package com.bbzbl.task.data.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores {@link TaskPriority} values as their integer code.
+ */
+@Converter(autoApply = true)
+public class TaskPriorityConverter implements AttributeConverter<TaskPriority, Integer> {
+
+    @Override
+    public Integer convertToDatabaseColumn(TaskPriority priority) {
+        return priority == null ? null : priority.getCode();
+    }
+
+    @Override
+    public TaskPriority convertToEntityAttribute(Integer code) {
+        return code == null ? null : TaskPriority.fromCode(code);
+    }
+}
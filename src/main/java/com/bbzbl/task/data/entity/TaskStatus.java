@@ -0,0 +1,39 @@
+package com.bbzbl.task.data.entity;
+
+import java.util.Arrays;
+
+/**
+ * The workflow state of a {@link Task}.
+ * Stored as a small integer code; the codes must never change once they are in the database.
+ * Display labels are defined by the views.
+ */
+public enum TaskStatus {
+
+    OPEN(0),
+    IN_PROGRESS(1),
+    DONE(2);
+
+    private final int code;
+
+    TaskStatus(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Returns the status stored with the given code.
+     *
+     * @param code the database code
+     * @return the status
+     * @throws IllegalArgumentException if no status has this code
+     */
+    public static TaskStatus fromCode(int code) {
+        return Arrays.stream(values())
+                .filter(status -> status.code == code)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown task status code: " + code));
+    }
+}
@@ -0,0 +1,21 @@
+package com.bbzbl.task.data.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores {@link TaskStatus} values as their integer code.
+ */
+@Converter(autoApply = true)
+public class TaskStatusConverter implements AttributeConverter<TaskStatus, Integer> {
+
+    @Override
+    public Integer convertToDatabaseColumn(TaskStatus status) {
+        return status == null ? null : status.getCode();
+    }
+
+    @Override
+    public TaskStatus convertToEntityAttribute(Integer code) {
+        return code == null ? null : TaskStatus.fromCode(code);
+    }
+}
@@ -0,0 +1,49 @@
+package com.bbzbl.task.data.filter;
+
+import com.bbzbl.task.data.entity.TaskPriority;
+import com.bbzbl.task.data.entity.TaskStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Immutable set of criteria used to select tasks in the database.
+ * Every criterion is optional; a {@code null} value means "no restriction".
+ *
+ * @param ownerId  the ID of the user owning the tasks
+ * @param keyword  search input whose words must occur in the title or description, matched as prefixes
+ * @param status   the status the tasks must have
+ * @param priority the priority the tasks must have
+ * @param dueFrom  the earliest due date (inclusive)
+ * @param dueTo    the latest due date (inclusive)
+ */
+public record TaskFilter(Long ownerId, String keyword, TaskStatus status, TaskPriority priority, LocalDate dueFrom, LocalDate dueTo) {
+
+    /**
+     * Creates a filter without any restriction.
+     *
+     * @return an empty filter
+     */
+    public static TaskFilter all() {
+        return new TaskFilter(null, null, null, null, null, null);
+    }
+
+    public TaskFilter withOwnerId(Long ownerId) {
+        return new TaskFilter(ownerId, keyword, status, priority, dueFrom, dueTo);
+    }
+
+    public TaskFilter withKeyword(String keyword) {
+        return new TaskFilter(ownerId, keyword, status, priority, dueFrom, dueTo);
+    }
+
+    public TaskFilter withStatus(TaskStatus status) {
+        return new TaskFilter(ownerId, keyword, status, priority, dueFrom, dueTo);
+    }
+
+    public TaskFilter withPriority(TaskPriority priority) {
+        return new TaskFilter(ownerId, keyword, status, priority, dueFrom, dueTo);
+    }
+
+    public TaskFilter withDueDateRange(LocalDate dueFrom, LocalDate dueTo) {
+        return new TaskFilter(ownerId, keyword, status, priority, dueFrom, dueTo);
+    }
+}
@@ -0,0 +1,60 @@
+package com.bbzbl.task.data.filter;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Registers the SQL functions that give JPA queries access to the SQLite FTS5
+ * full-text index {@code task_fts}, which mirrors the title and description of every task.
+ * <p>
+ * Registered with Hibernate through {@code META-INF/services/org.hibernate.boot.model.FunctionContributor}.
+ */
+public class TaskSearchFunctions implements FunctionContributor {
+
+    /**
+     * {@code task_fts_match(id, expression)} is true if the task with the given ID matches the FTS5 expression.
+     */
+    public static final String MATCH = "task_fts_match";
+
+    /**
+     * {@code task_fts_rank(id, expression)} returns the BM25 rank of the task for the FTS5 expression;
+     * lower values are better matches.
+     */
+    public static final String RANK = "task_fts_rank";
+
+    @Override
+    public void contributeFunctions(FunctionContributions contributions) {
+        BasicType<Boolean> booleanType = contributions.getTypeConfiguration()
+                .getBasicTypeRegistry().resolve(StandardBasicTypes.BOOLEAN);
+        BasicType<Double> doubleType = contributions.getTypeConfiguration()
+                .getBasicTypeRegistry().resolve(StandardBasicTypes.DOUBLE);
+
+        contributions.getFunctionRegistry().registerPattern(MATCH,
+                "(?1 in (select task_fts.rowid from task_fts where task_fts match ?2))", booleanType);
+        contributions.getFunctionRegistry().registerPattern(RANK,
+                "(select task_fts.rank from task_fts where task_fts match ?2 and task_fts.rowid = ?1)", doubleType);
+    }
+
+    /**
+     * Converts free user input into a prefix-aware FTS5 query: every word of the input
+     * must occur, and the last characters typed may be the beginning of a longer word.
+     *
+     * @param keyword the raw search input
+     * @return the FTS5 match expression, or null if the input contains no searchable word
+     */
+    public static String toMatchExpression(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        String expression = Arrays.stream(keyword.split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .map(token -> "\"" + token + "\"*")
+                .collect(Collectors.joining(" "));
+        return expression.isEmpty() ? null : expression;
+    }
+}
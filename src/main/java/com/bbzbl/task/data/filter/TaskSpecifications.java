@@ -0,0 +1,103 @@
+package com.bbzbl.task.data.filter;
+
+import com.bbzbl.task.data.entity.Task;
+import com.bbzbl.task.data.entity.TaskPriority;
+import com.bbzbl.task.data.entity.TaskStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+/**
+ * Factory for JPA {@link Specification}s that translate a {@link TaskFilter}
+ * into SQL predicates, so that filtering is done by the database.
+ */
+public final class TaskSpecifications {
+
+    private TaskSpecifications() {
+    }
+
+    /**
+     * Combines all criteria of the given filter into a single specification.
+     *
+     * @param filter the filter to translate
+     * @return a specification matching every non-null criterion of the filter
+     */
+    public static Specification<Task> matching(TaskFilter filter) {
+        return Specification.where(ownedBy(filter.ownerId()))
+                .and(matchesText(filter.keyword()))
+                .and(hasStatus(filter.status()))
+                .and(hasPriority(filter.priority()))
+                .and(dueOnOrAfter(filter.dueFrom()))
+                .and(dueOnOrBefore(filter.dueTo()));
+    }
+
+    /**
+     * @param ownerId the ID of the owner, or null for no restriction
+     * @return a specification matching tasks of the given owner
+     */
+    public static Specification<Task> ownedBy(Long ownerId) {
+        if (ownerId == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("owner").get("id"), ownerId);
+    }
+
+    /**
+     * Uses the full-text index, so the cost does not depend on the number of tasks.
+     *
+     * @param keyword the search input, or null/blank for no restriction
+     * @return a specification matching tasks whose title or description contain every word of the input as a prefix
+     */
+    public static Specification<Task> matchesText(String keyword) {
+        String expression = TaskSearchFunctions.toMatchExpression(keyword);
+        if (expression == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.isTrue(
+                cb.function(TaskSearchFunctions.MATCH, Boolean.class, root.get("id"), cb.literal(expression)));
+    }
+
+    /**
+     * @param status the status, or null for no restriction
+     * @return a specification matching tasks with the given status
+     */
+    public static Specification<Task> hasStatus(TaskStatus status) {
+        if (status == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    /**
+     * @param priority the priority, or null for no restriction
+     * @return a specification matching tasks with the given priority
+     */
+    public static Specification<Task> hasPriority(TaskPriority priority) {
+        if (priority == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("priority"), priority);
+    }
+
+    /**
+     * @param date the earliest due date, or null for no restriction
+     * @return a specification matching tasks due on or after the given date
+     */
+    public static Specification<Task> dueOnOrAfter(LocalDate date) {
+        if (date == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("dueDate"), date);
+    }
+
+    /**
+     * @param date the latest due date, or null for no restriction
+     * @return a specification matching tasks due on or before the given date
+     */
+    public static Specification<Task> dueOnOrBefore(LocalDate date) {
+        if (date == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("dueDate"), date);
+    }
+}
@@ -1,15 +1,32 @@
 package com.bbzbl.task.data.repository;
 
 import com.bbzbl.task.data.entity.Task;
+import com.bbzbl.task.data.entity.TaskPriority;
+import com.bbzbl.task.data.entity.TaskStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for accessing and managing {@link Task} entities.
- * Provides basic CRUD operations and custom queries.
+ * Provides basic CRUD operations, specification based filtering and custom queries.
  */
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, JpaSpecificationExecutor<Task>, TaskRepositoryCustom {
+
+    /**
+     * The select clause of queries returning {@link TaskSummary} projections.
+     */
+    String SELECT_SUMMARY = "SELECT new com.bbzbl.task.data.repository.TaskSummary(t.id, t.title, "
+            + "substring(t.description, 1, " + TaskSummary.DESCRIPTION_PREVIEW_LENGTH + "), t.status, t.priority, "
+            + "t.dueDate, t.durationMinutes, t.createdAt, t.version) ";
 
     /**
      * Retrieves all tasks associated with the specified owner's username.
@@ -18,4 +35,197 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
      * @return list of tasks belonging to the specified user
      */
     List<Task> findByOwnerUsername(String username);
+
+    /**
+     * Sets the status of a task with a single {@code UPDATE}, without loading it first.
+     * Only updates the task if it belongs to the owner and still has the expected version.
+     *
+     * @param id              the ID of the task
+     * @param ownerId         the ID of the task owner
+     * @param expectedVersion the version the caller last read
+     * @param status          the new status
+     * @return the number of updated tasks, 0 if the task is missing or was changed meanwhile
+     */
+    @Modifying
+    @Query("UPDATE Task t SET t.status = :status, t.version = t.version + 1 "
+            + "WHERE t.id = :id AND t.owner.id = :ownerId AND t.version = :expectedVersion")
+    int updateStatus(@Param("id") Long id, @Param("ownerId") Long ownerId,
+                     @Param("expectedVersion") long expectedVersion, @Param("status") TaskStatus status);
+
+    /**
+     * Sets the priority of a task with a single {@code UPDATE}, without loading it first.
+     * Only updates the task if it belongs to the owner and still has the expected version.
+     *
+     * @param id              the ID of the task
+     * @param ownerId         the ID of the task owner
+     * @param expectedVersion the version the caller last read
+     * @param priority        the new priority
+     * @return the number of updated tasks, 0 if the task is missing or was changed meanwhile
+     */
+    @Modifying
+    @Query("UPDATE Task t SET t.priority = :priority, t.version = t.version + 1 "
+            + "WHERE t.id = :id AND t.owner.id = :ownerId AND t.version = :expectedVersion")
+    int updatePriority(@Param("id") Long id, @Param("ownerId") Long ownerId,
+                       @Param("expectedVersion") long expectedVersion, @Param("priority") TaskPriority priority);
+
+    /**
+     * Deletes the given tasks of an owner with a single {@code DELETE}.
+     *
+     * @param ids     the IDs of the tasks
+     * @param ownerId the ID of the task owner; tasks of other owners are not deleted
+     * @return the number of deleted tasks
+     */
+    @Modifying
+    @Query("DELETE FROM Task t WHERE t.id IN :ids AND t.owner.id = :ownerId")
+    int deleteAllOfOwner(@Param("ids") Collection<Long> ids, @Param("ownerId") Long ownerId);
+
+    /**
+     * Sets the status of the given tasks of an owner with a single {@code UPDATE}.
+     *
+     * @param ids     the IDs of the tasks
+     * @param ownerId the ID of the task owner; tasks of other owners are not changed
+     * @param status  the new status
+     * @return the number of updated tasks
+     */
+    @Modifying
+    @Query("UPDATE Task t SET t.status = :status, t.version = t.version + 1 WHERE t.id IN :ids AND t.owner.id = :ownerId")
+    int updateStatusOfAll(@Param("ids") Collection<Long> ids, @Param("ownerId") Long ownerId,
+                          @Param("status") TaskStatus status);
+
+    /**
+     * Sets the priority of the given tasks of an owner with a single {@code UPDATE}.
+     *
+     * @param ids      the IDs of the tasks
+     * @param ownerId  the ID of the task owner; tasks of other owners are not changed
+     * @param priority the new priority
+     * @return the number of updated tasks
+     */
+    @Modifying
+    @Query("UPDATE Task t SET t.priority = :priority, t.version = t.version + 1 WHERE t.id IN :ids AND t.owner.id = :ownerId")
+    int updatePriorityOfAll(@Param("ids") Collection<Long> ids, @Param("ownerId") Long ownerId,
+                            @Param("priority") TaskPriority priority);
+
+    /**
+     * Counts the tasks of an owner with one of the statuses that are due before a date.
+     *
+     * @param ownerId  the ID of the task owner
+     * @param statuses the statuses to include
+     * @param date     the due date limit (exclusive)
+     * @return the number of matching tasks
+     */
+    @Query("SELECT COUNT(t) FROM Task t WHERE t.owner.id = :ownerId AND t.status IN :statuses AND t.dueDate < :date")
+    long countDueBefore(@Param("ownerId") Long ownerId, @Param("statuses") Collection<TaskStatus> statuses,
+                        @Param("date") LocalDate date);
+
+    /**
+     * Retrieves the tasks of an owner with one of the statuses that are due before a date,
+     * earliest due date first.
+     *
+     * @param ownerId  the ID of the task owner
+     * @param statuses the statuses to include
+     * @param date     the due date limit (exclusive)
+     * @param limit    the maximum number of tasks to return
+     * @return the summaries of the matching tasks
+     */
+    @Query(SELECT_SUMMARY + "FROM Task t WHERE t.owner.id = :ownerId AND t.status IN :statuses AND t.dueDate < :date "
+            + "ORDER BY t.dueDate, t.id")
+    List<TaskSummary> findDueBefore(@Param("ownerId") Long ownerId, @Param("statuses") Collection<TaskStatus> statuses,
+                             @Param("date") LocalDate date, Limit limit);
+
+    /**
+     * Counts the tasks of an owner with one of the statuses that are due within the date range.
+     *
+     * @param ownerId  the ID of the task owner
+     * @param statuses the statuses to include
+     * @param from     the earliest due date (inclusive)
+     * @param to       the latest due date (inclusive)
+     * @return the number of matching tasks
+     */
+    @Query("SELECT COUNT(t) FROM Task t WHERE t.owner.id = :ownerId AND t.status IN :statuses "
+            + "AND t.dueDate BETWEEN :from AND :to")
+    long countDueBetween(@Param("ownerId") Long ownerId, @Param("statuses") Collection<TaskStatus> statuses,
+                         @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Retrieves the tasks of an owner with one of the statuses that are due within the date range,
+     * earliest due date first.
+     *
+     * @param ownerId  the ID of the task owner
+     * @param statuses the statuses to include
+     * @param from     the earliest due date (inclusive)
+     * @param to       the latest due date (inclusive)
+     * @param limit    the maximum number of tasks to return
+     * @return the summaries of the matching tasks
+     */
+    @Query(SELECT_SUMMARY + "FROM Task t WHERE t.owner.id = :ownerId AND t.status IN :statuses "
+            + "AND t.dueDate BETWEEN :from AND :to ORDER BY t.dueDate, t.id")
+    List<TaskSummary> findDueBetween(@Param("ownerId") Long ownerId, @Param("statuses") Collection<TaskStatus> statuses,
+                              @Param("from") LocalDate from, @Param("to") LocalDate to, Limit limit);
+
+    /**
+     * Retrieves the tasks of an owner with one of the statuses that are due on or after a date,
+     * earliest due date first.
+     *
+     * @param ownerId  the ID of the task owner
+     * @param statuses the statuses to include
+     * @param date     the earliest due date (inclusive)
+     * @param limit    the maximum number of tasks to return
+     * @return the summaries of the matching tasks
+     */
+    @Query(SELECT_SUMMARY + "FROM Task t WHERE t.owner.id = :ownerId AND t.status IN :statuses AND t.dueDate >= :date "
+            + "ORDER BY t.dueDate, t.id")
+    List<TaskSummary> findDueFrom(@Param("ownerId") Long ownerId, @Param("statuses") Collection<TaskStatus> statuses,
+                           @Param("date") LocalDate date, Limit limit);
+
+    /**
+     * Retrieves the first page of a board column: the tasks of an owner with one status,
+     * ordered by due date (tasks without one first, like SQLite sorts {@code NULL}) and ID.
+     *
+     * @param ownerId the ID of the task owner
+     * @param status  the status of the column
+     * @param limit   the page size
+     * @return the summaries of the first tasks of the column
+     */
+    @Query(SELECT_SUMMARY + "FROM Task t WHERE t.owner.id = :ownerId AND t.status = :status "
+            + "ORDER BY t.dueDate, t.id")
+    List<TaskSummary> findColumnStart(@Param("ownerId") Long ownerId, @Param("status") TaskStatus status, Limit limit);
+
+    /**
+     * Retrieves the next page of a board column after a task without due date.
+     *
+     * @param ownerId the ID of the task owner
+     * @param status  the status of the column
+     * @param afterId the ID of the last task of the previous page
+     * @param limit   the page size
+     * @return the summaries of the following tasks of the column
+     */
+    @Query(SELECT_SUMMARY + "FROM Task t WHERE t.owner.id = :ownerId AND t.status = :status "
+            + "AND (t.dueDate IS NOT NULL OR t.id > :afterId) ORDER BY t.dueDate, t.id")
+    List<TaskSummary> findColumnAfterUndated(@Param("ownerId") Long ownerId, @Param("status") TaskStatus status,
+                                             @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Retrieves the next page of a board column after a task with a due date.
+     * The redundant {@code dueDate >= :dueDate} lets SQLite seek into the index instead of skipping rows.
+     *
+     * @param ownerId the ID of the task owner
+     * @param status  the status of the column
+     * @param dueDate the due date of the last task of the previous page
+     * @param afterId the ID of the last task of the previous page
+     * @param limit   the page size
+     * @return the summaries of the following tasks of the column
+     */
+    @Query(SELECT_SUMMARY + "FROM Task t WHERE t.owner.id = :ownerId AND t.status = :status "
+            + "AND t.dueDate >= :dueDate AND (t.dueDate > :dueDate OR t.id > :afterId) ORDER BY t.dueDate, t.id")
+    List<TaskSummary> findColumnAfter(@Param("ownerId") Long ownerId, @Param("status") TaskStatus status,
+                                      @Param("dueDate") LocalDate dueDate, @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Retrieves the summary of a single task, e.g. after a targeted update.
+     *
+     * @param id the ID of the task
+     * @return the summary of the task, or empty if it does not exist
+     */
+    @Query(SELECT_SUMMARY + "FROM Task t WHERE t.id = :id")
+    Optional<TaskSummary> findSummaryById(@Param("id") Long id);
 }
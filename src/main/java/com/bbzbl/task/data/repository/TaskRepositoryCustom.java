@@ -0,0 +1,58 @@
+package com.bbzbl.task.data.repository;
+
+import com.bbzbl.task.data.entity.Task;
+import com.bbzbl.task.data.filter.TaskFilter;
+import org.springframework.data.domain.Sort;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Custom query fragment of {@link TaskRepository} for queries that
+ * Spring Data cannot derive, such as plain offset/limit reads and statements built at runtime.
+ */
+public interface TaskRepositoryCustom {
+
+    /**
+     * Retrieves the summaries of a range of tasks matching the filter, selecting only the
+     * columns of a {@link TaskSummary}.
+     * Unlike {@code findAll(Specification, Pageable)}, no count query is issued
+     * and the offset does not need to be a multiple of the limit.
+     * If the filter contains a keyword and no sort order is given,
+     * the tasks are ordered by full-text relevance.
+     *
+     * @param filter the criteria the tasks must match
+     * @param offset the number of matching tasks to skip
+     * @param limit  the maximum number of tasks to return
+     * @param sort   the sort order, translated into an SQL {@code ORDER BY}
+     * @return the summaries of the tasks in the requested range
+     */
+    List<TaskSummary> findSummaryRange(TaskFilter filter, long offset, int limit, Sort sort);
+
+    /**
+     * Moves the due dates of the given tasks of an owner by a number of days with a single
+     * {@code UPDATE}. SQLite stores a date as the epoch milliseconds of its local midnight,
+     * so days cannot be added in SQL without breaking at daylight saving changes; instead the
+     * new dates are computed for the distinct due dates of the tasks and applied with a
+     * {@code CASE}. Tasks without a due date are not changed.
+     *
+     * @param ids     the IDs of the tasks
+     * @param ownerId the ID of the task owner; tasks of other owners are not changed
+     * @param days    the number of days to add, negative to move the dates earlier
+     * @return the number of updated tasks
+     */
+    int shiftDueDates(Collection<Long> ids, Long ownerId, int days);
+
+    /**
+     * Streams all tasks of an owner in ID order through a forward-only cursor, for exports of
+     * any size. Every task is detached from the persistence context once it is read, so the
+     * memory use does not grow with the number of tasks. Must be called inside a transaction,
+     * and the stream must be closed to release the cursor.
+     *
+     * @param ownerId   the ID of the task owner
+     * @param fetchSize the number of rows the driver reads from the database at once
+     * @return the tasks of the owner
+     */
+    Stream<Task> streamAllOfOwner(Long ownerId, int fetchSize);
+}
@@ -0,0 +1,113 @@
+package com.bbzbl.task.data.repository;
+
+import com.bbzbl.task.data.entity.Task;
+import com.bbzbl.task.data.filter.TaskFilter;
+import com.bbzbl.task.data.filter.TaskSearchFunctions;
+import com.bbzbl.task.data.filter.TaskSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Criteria API and JPQL based implementation of {@link TaskRepositoryCustom}.
+ */
+@Transactional(readOnly = true)
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    /**
+     * Constructor for injecting the entity manager.
+     *
+     * @param entityManager the shared JPA entity manager
+     */
+    public TaskRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<TaskSummary> findSummaryRange(TaskFilter filter, long offset, int limit, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskSummary> query = cb.createQuery(TaskSummary.class);
+        Root<Task> root = query.from(Task.class);
+
+        Specification<Task> specification = TaskSpecifications.matching(filter);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        String matchExpression = TaskSearchFunctions.toMatchExpression(filter.keyword());
+        if (sort.isUnsorted() && matchExpression != null) {
+            query.orderBy(cb.asc(cb.function(TaskSearchFunctions.RANK, Double.class, root.get("id"), cb.literal(matchExpression))));
+        } else {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        query.select(cb.construct(TaskSummary.class,
+                root.get("id"),
+                root.get("title"),
+                cb.substring(root.get("description"), 1, TaskSummary.DESCRIPTION_PREVIEW_LENGTH),
+                root.get("status"),
+                root.get("priority"),
+                root.get("dueDate"),
+                root.get("durationMinutes"),
+                root.get("createdAt"),
+                root.get("version")));
+
+        return entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<Task> streamAllOfOwner(Long ownerId, int fetchSize) {
+        return entityManager.createQuery("SELECT t FROM Task t WHERE t.owner.id = :ownerId ORDER BY t.id", Task.class)
+                .setParameter("ownerId", ownerId)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .peek(entityManager::detach);
+    }
+
+    @Override
+    @Transactional
+    public int shiftDueDates(Collection<Long> ids, Long ownerId, int days) {
+        List<LocalDate> dueDates = entityManager.createQuery("SELECT DISTINCT t.dueDate FROM Task t "
+                        + "WHERE t.id IN :ids AND t.owner.id = :ownerId AND t.dueDate IS NOT NULL", LocalDate.class)
+                .setParameter("ids", ids)
+                .setParameter("ownerId", ownerId)
+                .getResultList();
+        if (dueDates.isEmpty()) {
+            return 0;
+        }
+
+        StringBuilder newDueDate = new StringBuilder("CASE t.dueDate");
+        for (int i = 0; i < dueDates.size(); i++) {
+            newDueDate.append(" WHEN :from").append(i).append(" THEN :to").append(i);
+        }
+        newDueDate.append(" ELSE t.dueDate END");
+        Query update = entityManager.createQuery("UPDATE Task t SET t.dueDate = " + newDueDate
+                + ", t.version = t.version + 1 WHERE t.id IN :ids AND t.owner.id = :ownerId AND t.dueDate IS NOT NULL");
+        for (int i = 0; i < dueDates.size(); i++) {
+            update.setParameter("from" + i, dueDates.get(i));
+            update.setParameter("to" + i, dueDates.get(i).plusDays(days));
+        }
+        return update.setParameter("ids", ids)
+                .setParameter("ownerId", ownerId)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,65 @@
+package com.bbzbl.task.data.repository;
+
+import com.bbzbl.task.data.entity.Task;
+import com.bbzbl.task.data.entity.TaskPriority;
+import com.bbzbl.task.data.entity.TaskStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a task with the columns needed to render it in a list or on the board.
+ * The description is cut to {@link #DESCRIPTION_PREVIEW_LENGTH} characters by the database,
+ * and the owner is not loaded; the full {@link Task} is only read when a task is opened.
+ *
+ * @param id                 the ID of the task
+ * @param title              the title
+ * @param descriptionPreview the beginning of the description
+ * @param status             the status
+ * @param priority           the priority, may be null
+ * @param dueDate            the due date, may be null
+ * @param durationMinutes    the estimated duration in minutes, may be null
+ * @param createdAt          the creation time
+ * @param version            the version, for targeted updates from the list
+ */
+public record TaskSummary(Long id, String title, String descriptionPreview, TaskStatus status, TaskPriority priority,
+                          LocalDate dueDate, Integer durationMinutes, LocalDateTime createdAt, Long version) {
+
+    /**
+     * The maximum number of description characters contained in a summary.
+     */
+    public static final int DESCRIPTION_PREVIEW_LENGTH = 100;
+
+    /**
+     * Creates the summary of a loaded task, cutting the description like the database query does.
+     *
+     * @param task the task
+     * @return the summary
+     */
+    public static TaskSummary of(Task task) {
+        String description = task.getDescription();
+        if (description != null && description.length() > DESCRIPTION_PREVIEW_LENGTH) {
+            description = description.substring(0, DESCRIPTION_PREVIEW_LENGTH);
+        }
+        return new TaskSummary(task.getId(), task.getTitle(), description, task.getStatus(), task.getPriority(),
+                task.getDueDate(), task.getDurationMinutes(), task.getCreatedAt(), task.getVersion());
+    }
+
+    /**
+     * Returns the summary of the task after a targeted status change.
+     *
+     * @param newStatus  the new status
+     * @param newVersion the version after the change
+     * @return a copy with the new status and version
+     */
+    public TaskSummary withStatus(TaskStatus newStatus, long newVersion) {
+        return new TaskSummary(id, title, descriptionPreview, newStatus, priority, dueDate, durationMinutes, createdAt, newVersion);
+    }
+
+    /**
+     * @return true if the preview has the maximum length, i.e. the description may continue
+     */
+    public boolean isDescriptionTruncated() {
+        return descriptionPreview != null && descriptionPreview.length() >= DESCRIPTION_PREVIEW_LENGTH;
+    }
+}
@@ -7,18 +7,48 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Utility component to access the currently authenticated {@link User}
  * and handle logout functionality.
+ * <p>
+ * The user entities are cached by username, so a user is only loaded once instead of on every
+ * call. The cache does not depend on the {@code VaadinSession}, so it also serves the threads
+ * that run without one, e.g. background reads and the export and import, as long as they run
+ * with the user's security context. {@link #refresh(User)} and {@link #invalidate()} must be
+ * called whenever a user is changed, once the change is committed, which makes every cached
+ * user load again.
  */
 @Component
 public class AuthenticatedUser {
 
+    /**
+     * A cached user, together with the generation it was loaded in.
+     *
+     * @param user       the user entity
+     * @param generation the value of {@link #generation} when the user was loaded
+     */
+    private record CachedUser(User user, long generation) {
+    }
+
     private final UserRepository userRepository;
     private final AuthenticationContext authenticationContext;
 
+    /**
+     * The loaded users by username. Emptied on every user change, so it only holds the users
+     * that were authenticated since then.
+     */
+    private final Map<String, CachedUser> users = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented on every user change; cached users of an older generation are reloaded.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
     /**
      * Constructor for injecting dependencies.
      *
@@ -32,19 +62,70 @@ public class AuthenticatedUser {
 
     /**
      * Retrieves the currently authenticated {@link User}, if available.
+     * Served from the cache if the user was already loaded.
      *
      * @return an Optional containing the current user or empty if not authenticated
      */
-    @Transactional
+    @Transactional(readOnly = true)
     public Optional<User> get() {
         return authenticationContext.getAuthenticatedUser(UserDetails.class)
-                .flatMap(userDetails -> userRepository.findByUsername(userDetails.getUsername()));
+                .flatMap(userDetails -> getCached(userDetails.getUsername())
+                        .or(() -> load(userDetails.getUsername())));
+    }
+
+    /**
+     * Caches the changed user and makes all other cached users load again.
+     *
+     * @param user the user that was saved
+     */
+    public void refresh(User user) {
+        long current = generation.incrementAndGet();
+        users.clear();
+        users.put(user.getUsername(), new CachedUser(user, current));
+    }
+
+    /**
+     * Makes all cached users load again, e.g. after a user was deleted.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        users.clear();
     }
 
     /**
      * Logs out the currently authenticated user.
      */
     public void logout() {
+        authenticationContext.getAuthenticatedUser(UserDetails.class)
+                .ifPresent(userDetails -> users.remove(userDetails.getUsername()));
         authenticationContext.logout();
     }
+
+    /**
+     * Returns the cached user, if it is still up to date.
+     * A user loaded before a later change of any user is outdated.
+     *
+     * @param username the username of the authenticated principal
+     * @return the cached user, or empty if there is none or it must be reloaded
+     */
+    private Optional<User> getCached(String username) {
+        CachedUser cached = users.get(username);
+        if (cached != null && cached.generation() == generation.get()) {
+            return Optional.of(cached.user());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Loads the user from the database and caches it.
+     *
+     * @param username the username of the authenticated principal
+     * @return the user, or empty if it does not exist
+     */
+    private Optional<User> load(String username) {
+        long current = generation.get();
+        Optional<User> user = userRepository.findByUsername(username);
+        user.ifPresent(found -> users.put(username, new CachedUser(found, current)));
+        return user;
+    }
 }
@@ -21,14 +21,17 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 public class SecurityConfiguration extends VaadinWebSecurity {
 
     private final CustomUserDetailsService customUserDetailsService;
+    private final UserDetailsCache userDetailsCache;
 
     /**
      * Constructor to inject the custom user details service.
      *
      * @param customUserDetailsService implementation to load user credentials
+     * @param userDetailsCache         cache for the loaded user credentials
      */
-    public SecurityConfiguration(CustomUserDetailsService customUserDetailsService) {
+    public SecurityConfiguration(CustomUserDetailsService customUserDetailsService, UserDetailsCache userDetailsCache) {
         this.customUserDetailsService = customUserDetailsService;
+        this.userDetailsCache = userDetailsCache;
     }
 
     /**
@@ -42,7 +45,8 @@ public class SecurityConfiguration extends VaadinWebSecurity {
     }
 
     /**
-     * Configures the authentication provider with custom user details service and password encoder.
+     * Configures the authentication provider with custom user details service, user cache and password encoder.
+     * If a login fails against a cached user, the provider loads the user again before rejecting it.
      *
      * @return the configured DaoAuthenticationProvider
      */
@@ -50,6 +54,7 @@ public class SecurityConfiguration extends VaadinWebSecurity {
     public DaoAuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(customUserDetailsService);
+        authProvider.setUserCache(userDetailsCache);
         authProvider.setPasswordEncoder(passwordEncoder());
         return authProvider;
     }
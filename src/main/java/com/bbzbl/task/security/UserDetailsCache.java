@@ -0,0 +1,147 @@
+package com.bbzbl.task.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, time-limited cache of {@link UserDetails}, used by the authentication provider so
+ * repeated logins of the same account do not query the database every time.
+ * <p>
+ * The least recently used entry is dropped when the cache is full, and entries expire after a
+ * fixed time. {@link com.bbzbl.task.services.UserService} removes an entry whenever the user's
+ * password, active flag or account changes, so a disabled account is rejected immediately.
+ * A user that was loaded before such a removal is not cached afterwards: the login may have
+ * read the row before the change was committed.
+ * Copies are stored and returned, because Spring Security erases the password of the
+ * authenticated principal after a successful login.
+ */
+@Component
+public class UserDetailsCache implements UserCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDetailsCache.class);
+
+    /**
+     * Hit and miss statistics of the cache.
+     *
+     * @param hits   the number of lookups answered from the cache
+     * @param misses the number of lookups that had to go to the database
+     * @param size   the number of cached entries
+     */
+    public record Stats(long hits, long misses, int size) {
+
+        /**
+         * @return the share of lookups answered from the cache, between 0 and 1
+         */
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    /**
+     * A cached user together with the time it expires.
+     */
+    private record Entry(UserDetails user, Instant expiresAt) {
+    }
+
+    private final Map<String, Entry> entries;
+    private final Duration timeToLive;
+    private final Clock clock;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Incremented on every removal; a user loaded after a miss of an older generation is not cached.
+     */
+    private long generation;
+
+    /**
+     * The generation of the last miss on the current thread, which loads the user and then
+     * puts it into the cache.
+     */
+    private final ThreadLocal<Long> missGeneration = new ThreadLocal<>();
+
+    /**
+     * Constructor for injecting the cache settings.
+     *
+     * @param maxSize           the maximum number of cached users
+     * @param timeToLiveSeconds how long a cached user is used before it is loaded again
+     */
+    public UserDetailsCache(@Value("${taskapp.security.user-cache.max-size:1000}") int maxSize,
+                            @Value("${taskapp.security.user-cache.ttl-seconds:300}") long timeToLiveSeconds) {
+        this.timeToLive = Duration.ofSeconds(timeToLiveSeconds);
+        this.clock = Clock.systemUTC();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    @Override
+    public synchronized UserDetails getUserFromCache(String username) {
+        Entry entry = entries.get(username);
+        if (entry == null || !clock.instant().isBefore(entry.expiresAt())) {
+            if (entry != null) {
+                entries.remove(username);
+            }
+            misses.incrementAndGet();
+            missGeneration.set(generation);
+            return null;
+        }
+        hits.incrementAndGet();
+        return copy(entry.user());
+    }
+
+    @Override
+    public synchronized void putUserInCache(UserDetails user) {
+        Long loadedIn = missGeneration.get();
+        missGeneration.remove();
+        if (loadedIn != null && loadedIn != generation) {
+            logger.debug("Did not cache user '{}', which was loaded before a change.", user.getUsername());
+            return;
+        }
+        entries.put(user.getUsername(), new Entry(copy(user), clock.instant().plus(timeToLive)));
+    }
+
+    @Override
+    public synchronized void removeUserFromCache(String username) {
+        generation++;
+        if (entries.remove(username) != null) {
+            logger.debug("Removed user '{}' from the user details cache.", username);
+        }
+    }
+
+    /**
+     * Returns the current cache statistics.
+     *
+     * @return a snapshot of the statistics
+     */
+    public synchronized Stats getStats() {
+        return new Stats(hits.get(), misses.get(), entries.size());
+    }
+
+    /**
+     * Creates an independent copy of the user, including its password.
+     *
+     * @param user the user to copy
+     * @return the copy
+     */
+    private static UserDetails copy(UserDetails user) {
+        return User.withUserDetails(user).build();
+    }
+}
@@ -0,0 +1,168 @@
+package com.bbzbl.task.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Cross-node feed of committed task and user changes, for several app instances sharing one database.
+ * <p>
+ * {@link TaskService} and {@link UserService} append a row to the {@code change_log} table inside
+ * the transaction of every mutation, so a row is committed if and only if its change is. Each
+ * node tags its rows with its node ID; the {@link ChangeFeedTailer} of every other node reads
+ * them in sequence order and applies them locally. SQLite commits one writer at a time, so the
+ * sequence numbers become visible in order and the tailer never skips a row.
+ */
+@Component
+public class ChangeFeed {
+
+    /**
+     * The kinds of changed entities.
+     */
+    public enum Entity {
+        TASK,
+        USER
+    }
+
+    /**
+     * A change written by another node.
+     *
+     * @param seq      the sequence number of the change
+     * @param entity   the kind of the changed entity
+     * @param type     what happened to the entity
+     * @param entityId the ID of the task or user; the owner ID for bulk task changes
+     * @param ownerId  the owner of the task, null for user changes
+     * @param username the username whose cached login is outdated, null for task changes
+     */
+    public record Entry(long seq, Entity entity, TaskChange.Type type, Long entityId, Long ownerId, String username) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId;
+
+    /**
+     * Constructor for injecting dependencies.
+     *
+     * @param jdbcTemplate template bound to the application's data source
+     * @param nodeId       the ID of this node, a random one if blank
+     */
+    public ChangeFeed(JdbcTemplate jdbcTemplate, @Value("${taskapp.change-feed.node-id:}") String nodeId) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+    }
+
+    /**
+     * @return the ID this node tags its changes with
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Appends a task change. Must be called inside the transaction of the change.
+     *
+     * @param type    what happened to the task
+     * @param ownerId the ID of the task owner
+     * @param taskId  the ID of the task
+     */
+    public void recordTaskChange(TaskChange.Type type, Long ownerId, Long taskId) {
+        record(Entity.TASK, type, taskId, ownerId, null);
+    }
+
+    /**
+     * Appends the same change of several tasks of an owner with one {@code INSERT ... SELECT}.
+     * Only the existing tasks of the owner are recorded, so changes of deleted tasks must be
+     * recorded before the delete. Must be called inside the transaction of the change.
+     *
+     * @param type    what happened to the tasks
+     * @param ownerId the ID of the task owner
+     * @param taskIds the IDs of the tasks
+     * @return the number of recorded changes
+     */
+    public int recordTaskChanges(TaskChange.Type type, Long ownerId, Collection<Long> taskIds) {
+        List<Object> args = new ArrayList<>(List.of(nodeId, Entity.TASK.name(), type.name()));
+        args.addAll(taskIds);
+        args.add(ownerId);
+        return jdbcTemplate.update("INSERT INTO change_log (node_id, entity, change_type, entity_id, owner_id) "
+                + "SELECT ?, ?, ?, id, owner_id FROM task WHERE id IN ("
+                + String.join(", ", Collections.nCopies(taskIds.size(), "?")) + ") AND owner_id = ?", args.toArray());
+    }
+
+    /**
+     * Appends a single change standing for many changed tasks of an owner, e.g. the tasks
+     * created by one chunk of an import. Must be called inside the transaction of the change.
+     *
+     * @param ownerId the ID of the task owner
+     */
+    public void recordBulkTaskChange(Long ownerId) {
+        record(Entity.TASK, TaskChange.Type.BULK, ownerId, ownerId, null);
+    }
+
+    /**
+     * Appends a user change. Must be called inside the transaction of the change.
+     *
+     * @param type     what happened to the user
+     * @param userId   the ID of the user
+     * @param username the username whose cached login must be dropped
+     */
+    public void recordUserChange(TaskChange.Type type, Long userId, String username) {
+        record(Entity.USER, type, userId, null, username);
+    }
+
+    /**
+     * @return the sequence number of the latest change, 0 if there is none
+     */
+    public long getLastSeq() {
+        Long seq = jdbcTemplate.queryForObject("SELECT MAX(seq) FROM change_log", Long.class);
+        return seq == null ? 0 : seq;
+    }
+
+    /**
+     * Reads the changes written by other nodes after a sequence number.
+     *
+     * @param afterSeq the sequence number of the last change already applied
+     * @param limit    the maximum number of changes to read
+     * @return the changes in sequence order
+     */
+    public List<Entry> readAfter(long afterSeq, int limit) {
+        return jdbcTemplate.query(
+                "SELECT seq, entity, change_type, entity_id, owner_id, username FROM change_log "
+                        + "WHERE seq > ? AND node_id <> ? ORDER BY seq LIMIT ?",
+                (resultSet, rowNum) -> {
+                    long ownerId = resultSet.getLong("owner_id");
+                    boolean withoutOwner = resultSet.wasNull();
+                    return new Entry(
+                            resultSet.getLong("seq"),
+                            Entity.valueOf(resultSet.getString("entity")),
+                            TaskChange.Type.valueOf(resultSet.getString("change_type")),
+                            resultSet.getLong("entity_id"),
+                            withoutOwner ? null : ownerId,
+                            resultSet.getString("username"));
+                },
+                afterSeq, nodeId, limit);
+    }
+
+    /**
+     * Deletes the changes older than the retention time. A node that was down for longer
+     * starts with empty caches anyway, so it does not need them.
+     *
+     * @param retention how long changes are kept
+     * @return the number of deleted changes
+     */
+    public int prune(Duration retention) {
+        return jdbcTemplate.update("DELETE FROM change_log WHERE created_at < datetime('now', ?)",
+                "-" + retention.toSeconds() + " seconds");
+    }
+
+    private void record(Entity entity, TaskChange.Type type, Long entityId, Long ownerId, String username) {
+        jdbcTemplate.update("INSERT INTO change_log (node_id, entity, change_type, entity_id, owner_id, username) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", nodeId, entity.name(), type.name(), entityId, ownerId, username);
+    }
+}
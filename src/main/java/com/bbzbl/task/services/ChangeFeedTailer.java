@@ -0,0 +1,237 @@
+package com.bbzbl.task.services;
+
+import com.bbzbl.task.data.repository.TaskRepository;
+import com.bbzbl.task.security.AuthenticatedUser;
+import com.bbzbl.task.security.UserDetailsCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the changes other nodes wrote to the {@link ChangeFeed} on this node.
+ * <p>
+ * A single thread polls the feed for rows after the last applied sequence number, which is a
+ * cheap range read on the primary key of the {@code change_log} table. For every remote task
+ * change the cached task list of the owner is invalidated and the change is re-published
+ * through the {@link TaskChangeBroadcaster}, so open views on this node update like for a local
+ * change; bulk changes and many changes of one owner in a batch, e.g. from a bulk command or an
+ * import, are announced as one bulk change instead. Remote user changes drop the cached login and make the cached users load again.
+ * Changes older than the retention time are pruned periodically.
+ */
+@Component
+public class ChangeFeedTailer implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeedTailer.class);
+
+    /**
+     * From this many task changes of one owner in a batch on, the owner's views reload once.
+     */
+    private static final int BULK_THRESHOLD = 20;
+
+    private final ChangeFeed changeFeed;
+    private final TaskRepository taskRepository;
+    private final TaskCache taskCache;
+    private final TaskChangeBroadcaster changeBroadcaster;
+    private final UserDetailsCache userDetailsCache;
+    private final AuthenticatedUser authenticatedUser;
+    private final TaskWriteQueue writeQueue;
+    private final TransactionTemplate readTransaction;
+
+    private final boolean enabled;
+    private final long pollIntervalMillis;
+    private final int batchSize;
+    private final Duration retention;
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * The sequence number of the last applied change; only accessed by the tailer thread.
+     */
+    private long lastSeq;
+
+    /**
+     * Constructor for injecting dependencies and settings.
+     *
+     * @param changeFeed         the feed to tail
+     * @param taskRepository     repository to read the summaries of remotely changed tasks
+     * @param taskCache          per-owner cache of the task lists, invalidated on remote changes
+     * @param changeBroadcaster  delivers the remote changes to the open views on this node
+     * @param userDetailsCache   the login cache, from which remotely changed users are removed
+     * @param authenticatedUser  the provider of the current user, whose cached users are reloaded on user changes
+     * @param writeQueue         queue through which old changes are pruned
+     * @param transactionManager the transaction manager, used to read from the reader pool
+     * @param enabled            whether remote changes are applied
+     * @param pollIntervalMillis how often the feed is polled
+     * @param batchSize          the maximum number of changes read at once
+     * @param retentionMinutes   how long changes are kept in the feed
+     */
+    public ChangeFeedTailer(ChangeFeed changeFeed, TaskRepository taskRepository, TaskCache taskCache,
+                            TaskChangeBroadcaster changeBroadcaster, UserDetailsCache userDetailsCache,
+                            AuthenticatedUser authenticatedUser, TaskWriteQueue writeQueue,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${taskapp.change-feed.enabled:true}") boolean enabled,
+                            @Value("${taskapp.change-feed.poll-interval-ms:200}") long pollIntervalMillis,
+                            @Value("${taskapp.change-feed.batch-size:500}") int batchSize,
+                            @Value("${taskapp.change-feed.retention-minutes:60}") long retentionMinutes) {
+        this.changeFeed = changeFeed;
+        this.taskRepository = taskRepository;
+        this.taskCache = taskCache;
+        this.changeBroadcaster = changeBroadcaster;
+        this.userDetailsCache = userDetailsCache;
+        this.authenticatedUser = authenticatedUser;
+        this.writeQueue = writeQueue;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.batchSize = batchSize;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+    }
+
+    /**
+     * Starts tailing at the latest change; earlier changes are already reflected in the
+     * database, and the caches of this node are still empty.
+     */
+    @Override
+    public synchronized void start() {
+        if (!enabled) {
+            return;
+        }
+        lastSeq = readTransaction.execute(status -> changeFeed.getLastSeq());
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "taskapp-change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::poll, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        long pruneIntervalMillis = Math.max(retention.toMillis() / 10, 1000);
+        executor.scheduleWithFixedDelay(this::prune, pruneIntervalMillis, pruneIntervalMillis, TimeUnit.MILLISECONDS);
+        logger.info("Change feed of node {} tailed from sequence {}.", changeFeed.getNodeId(), lastSeq);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(pollIntervalMillis * 10, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return executor != null;
+    }
+
+    /**
+     * Applies all changes written by other nodes since the last poll.
+     */
+    private void poll() {
+        try {
+            List<ChangeFeed.Entry> entries;
+            do {
+                long after = lastSeq;
+                entries = readTransaction.execute(status -> changeFeed.readAfter(after, batchSize));
+                Set<Long> bulkOwners = bulkOwners(entries);
+                for (ChangeFeed.Entry entry : entries) {
+                    if (entry.entity() != ChangeFeed.Entity.TASK || !bulkOwners.contains(entry.ownerId())) {
+                        apply(entry);
+                    }
+                    lastSeq = entry.seq();
+                }
+                for (Long ownerId : bulkOwners) {
+                    taskCache.invalidate(ownerId);
+                    changeBroadcaster.publish(TaskChange.bulk(ownerId));
+                }
+            } while (entries.size() == batchSize);
+        } catch (RuntimeException e) {
+            logger.warn("Polling the change feed after sequence {} failed.", lastSeq, e);
+        }
+    }
+
+    /**
+     * Finds the owners with a bulk change or at least {@link #BULK_THRESHOLD} task changes in a
+     * batch, e.g. from an import or a bulk command. Their changes are not applied one by one;
+     * their views reload once instead.
+     *
+     * @param entries the changes of a batch
+     * @return the IDs of the owners
+     */
+    private static Set<Long> bulkOwners(List<ChangeFeed.Entry> entries) {
+        Map<Long, Integer> counts = new HashMap<>();
+        Set<Long> owners = new HashSet<>();
+        for (ChangeFeed.Entry entry : entries) {
+            if (entry.entity() == ChangeFeed.Entity.TASK) {
+                counts.merge(entry.ownerId(), 1, Integer::sum);
+                if (entry.type() == TaskChange.Type.BULK) {
+                    owners.add(entry.ownerId());
+                }
+            }
+        }
+        counts.forEach((ownerId, count) -> {
+            if (count >= BULK_THRESHOLD) {
+                owners.add(ownerId);
+            }
+        });
+        return owners;
+    }
+
+    /**
+     * Applies a single remote change to the caches and open views of this node.
+     *
+     * @param entry the change
+     */
+    private void apply(ChangeFeed.Entry entry) {
+        if (entry.entity() == ChangeFeed.Entity.USER) {
+            if (entry.username() != null) {
+                userDetailsCache.removeUserFromCache(entry.username());
+            }
+            authenticatedUser.invalidate();
+            if (entry.type() == TaskChange.Type.DELETED) {
+                taskCache.invalidate(entry.entityId());
+            }
+            return;
+        }
+
+        taskCache.invalidate(entry.ownerId());
+        if (entry.type() == TaskChange.Type.DELETED) {
+            changeBroadcaster.publish(TaskChange.deleted(entry.ownerId(), entry.entityId()));
+            return;
+        }
+        // A task deleted meanwhile is skipped; its deletion follows later in the feed
+        readTransaction.execute(status -> taskRepository.findSummaryById(entry.entityId()))
+                .ifPresent(task -> changeBroadcaster.publish(
+                        new TaskChange(entry.type(), entry.ownerId(), entry.entityId(), task)));
+    }
+
+    /**
+     * Deletes the changes older than the retention time through the write queue.
+     */
+    private void prune() {
+        try {
+            writeQueue.submit(() -> changeFeed.prune(retention))
+                    .thenAccept(deleted -> logger.debug("Pruned {} changes from the change feed.", deleted));
+        } catch (IllegalStateException e) {
+            logger.debug("Pruning the change feed skipped: {}", e.getMessage());
+        }
+    }
+}
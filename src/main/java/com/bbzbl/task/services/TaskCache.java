@@ -0,0 +1,454 @@
+package com.bbzbl.task.services;
+
+import com.bbzbl.task.data.entity.Task;
+import com.bbzbl.task.data.entity.TaskPriority;
+import com.bbzbl.task.data.entity.TaskStatus;
+import com.bbzbl.task.data.filter.TaskFilter;
+import com.bbzbl.task.data.filter.TaskSearchFunctions;
+import com.bbzbl.task.data.repository.TaskSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Read cache holding the complete task list of recently active users, as {@link TaskSummary} projections.
+ * <p>
+ * Filters without a full-text keyword are answered from the cached list, so switching
+ * between the home page, the board and the list costs no database reads as long as the
+ * tasks did not change. The results of the last few filters and sort orders of an owner are
+ * kept as well, so the pages of a lazy-loading grid and its count are not filtered and sorted
+ * again on every request. {@link TaskService} patches or invalidates the entry of the affected
+ * owner after every mutation, which also drops these results. The least recently used owners
+ * are evicted when either the number of cached owners or the estimated memory use exceeds its
+ * limit.
+ */
+@Component
+public class TaskCache {
+
+    /**
+     * Rough per-task overhead of the summary, its dates, numbers and the list slot, in bytes.
+     */
+    private static final long TASK_OVERHEAD_BYTES = 200;
+
+    /**
+     * Size of a list slot of a kept result, in bytes.
+     */
+    private static final long REFERENCE_BYTES = 8;
+
+    /**
+     * The number of filtered, sorted results kept per owner.
+     */
+    private static final int MAX_RESULTS_PER_OWNER = 4;
+
+    /**
+     * Hit and miss statistics of the cache.
+     *
+     * @param hits      the number of reads answered from the cache
+     * @param misses    the number of reads that loaded the task list from the database
+     * @param owners    the number of owners with a cached task list
+     * @param tasks     the number of cached tasks
+     * @param usedBytes the estimated memory used by the cached tasks
+     */
+    public record Stats(long hits, long misses, int owners, int tasks, long usedBytes) {
+    }
+
+    /**
+     * The key of a kept result.
+     */
+    private record Query(TaskFilter filter, Sort sort) {
+    }
+
+    /**
+     * The cached tasks of one owner, ordered by ID, and their estimated size, including the
+     * kept results and counts, which are only valid for the current version of the tasks.
+     */
+    private static final class Entry {
+        private final List<TaskSummary> tasks;
+        private final LinkedHashMap<Query, List<TaskSummary>> results = new LinkedHashMap<>(8, 0.75f, true);
+        private final Map<TaskFilter, Long> counts = new HashMap<>();
+        private long version;
+        private long bytes;
+
+        private Entry(List<TaskSummary> tasks) {
+            this.tasks = new ArrayList<>(tasks);
+            this.tasks.sort(Comparator.comparing(TaskSummary::id));
+            this.bytes = tasks.stream().mapToLong(TaskCache::estimateBytes).sum();
+        }
+    }
+
+    private final int maxOwners;
+    private final long maxBytes;
+
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Incremented per owner on every change, so a list loaded while a mutation committed is not cached.
+     */
+    private final Map<Long, Long> generations = new HashMap<>();
+
+    private long usedBytes;
+    private long hits;
+    private long misses;
+
+    /**
+     * Constructor for injecting the cache limits.
+     *
+     * @param maxOwners   the maximum number of owners whose tasks are cached
+     * @param maxMemoryMb the maximum estimated memory used by the cached tasks, in megabytes
+     */
+    public TaskCache(@Value("${taskapp.task-cache.max-owners:1000}") int maxOwners,
+                     @Value("${taskapp.task-cache.max-memory-mb:64}") long maxMemoryMb) {
+        this.maxOwners = maxOwners;
+        this.maxBytes = maxMemoryMb * 1024 * 1024;
+    }
+
+    /**
+     * Returns all tasks of the owner, loading and caching them on a miss.
+     *
+     * @param ownerId the ID of the owner
+     * @param loader  loads all tasks of the owner from the database
+     * @return an unmodifiable list of the owner's tasks, ordered by ID
+     */
+    public List<TaskSummary> getAll(Long ownerId, Function<Long, List<TaskSummary>> loader) {
+        long generation;
+        synchronized (this) {
+            Entry entry = entries.get(ownerId);
+            if (entry != null) {
+                hits++;
+                return List.copyOf(entry.tasks);
+            }
+            misses++;
+            generation = generations.getOrDefault(ownerId, 0L);
+        }
+
+        List<TaskSummary> tasks = loader.apply(ownerId);
+        synchronized (this) {
+            if (generations.getOrDefault(ownerId, 0L) == generation) {
+                store(ownerId, new Entry(tasks));
+            }
+        }
+        return List.copyOf(tasks);
+    }
+
+    /**
+     * Checks if a filtered, sorted read can be answered from the cached task list.
+     * Full-text searches and sort orders on unknown properties always go to the database, as do
+     * sort orders on the description, which is only cached as a preview.
+     *
+     * @param filter the filter of the read
+     * @param sort   the sort order of the read
+     * @return true if {@link #find} can be used
+     */
+    public boolean supports(TaskFilter filter, Sort sort) {
+        return TaskSearchFunctions.toMatchExpression(filter.keyword()) == null
+                && sort.stream().allMatch(order -> comparatorFor(order.getProperty()).isPresent());
+    }
+
+    /**
+     * Filters and sorts the owner's tasks like the database would.
+     * Must only be called if {@link #supports} returns true.
+     *
+     * @param filter the filter, including the owner
+     * @param sort   the sort order
+     * @param loader loads all tasks of the owner from the database on a miss
+     * @return the matching tasks in the requested order
+     */
+    public List<TaskSummary> find(TaskFilter filter, Sort sort, Function<Long, List<TaskSummary>> loader) {
+        Query query = new Query(filter, sort);
+        Entry entry;
+        List<TaskSummary> tasks;
+        long version;
+        synchronized (this) {
+            entry = entries.get(filter.ownerId());
+            if (entry != null) {
+                hits++;
+                List<TaskSummary> result = entry.results.get(query);
+                if (result != null) {
+                    return result;
+                }
+                tasks = List.copyOf(entry.tasks);
+                version = entry.version;
+            } else {
+                tasks = null;
+                version = 0;
+            }
+        }
+        if (tasks == null) {
+            return filterAndSort(getAll(filter.ownerId(), loader), filter, sort);
+        }
+
+        // Sorted outside the lock, and only kept if the tasks did not change in the meantime
+        List<TaskSummary> result = filterAndSort(tasks, filter, sort);
+        synchronized (this) {
+            if (entries.get(filter.ownerId()) == entry && entry.version == version) {
+                keepResult(entry, query, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Counts the owner's tasks matching the filter, without sorting them.
+     * Must only be called if {@link #supports} returns true for the filter.
+     *
+     * @param filter the filter, including the owner
+     * @param loader loads all tasks of the owner from the database on a miss
+     * @return the number of matching tasks
+     */
+    public long count(TaskFilter filter, Function<Long, List<TaskSummary>> loader) {
+        synchronized (this) {
+            Entry entry = entries.get(filter.ownerId());
+            if (entry != null) {
+                hits++;
+                return entry.counts.computeIfAbsent(filter,
+                        key -> entry.tasks.stream().filter(matching(key)).count());
+            }
+        }
+        return getAll(filter.ownerId(), loader).stream().filter(matching(filter)).count();
+    }
+
+    /**
+     * Adds or replaces a task in its owner's cached list, if that list is cached.
+     *
+     * @param task the task as committed to the database
+     */
+    public void put(Task task) {
+        put(task.getOwner().getId(), TaskSummary.of(task));
+    }
+
+    /**
+     * Adds or replaces a task in its owner's cached list, if that list is cached,
+     * e.g. with the summary read back after a targeted update.
+     *
+     * @param ownerId the ID of the owner
+     * @param summary the summary of the task as committed to the database
+     */
+    public synchronized void put(Long ownerId, TaskSummary summary) {
+        bumpGeneration(ownerId);
+        Entry entry = entries.get(ownerId);
+        if (entry == null) {
+            return;
+        }
+        removeFromEntry(entry, summary.id());
+        dropResults(entry);
+        int index = 0;
+        while (index < entry.tasks.size() && entry.tasks.get(index).id() < summary.id()) {
+            index++;
+        }
+        entry.tasks.add(index, summary);
+        entry.bytes += estimateBytes(summary);
+        usedBytes += estimateBytes(summary);
+        evictIfNeeded();
+    }
+
+    /**
+     * Removes a task from its owner's cached list, if that list is cached.
+     *
+     * @param ownerId the ID of the owner
+     * @param taskId  the ID of the deleted task
+     */
+    public synchronized void remove(Long ownerId, Long taskId) {
+        bumpGeneration(ownerId);
+        Entry entry = entries.get(ownerId);
+        if (entry != null) {
+            removeFromEntry(entry, taskId);
+            dropResults(entry);
+        }
+    }
+
+    /**
+     * Drops the cached list of an owner, e.g. after a change that was not read back.
+     *
+     * @param ownerId the ID of the owner
+     */
+    public synchronized void invalidate(Long ownerId) {
+        bumpGeneration(ownerId);
+        Entry entry = entries.remove(ownerId);
+        if (entry != null) {
+            usedBytes -= entry.bytes;
+        }
+    }
+
+    /**
+     * Returns the current cache statistics.
+     *
+     * @return a snapshot of the statistics
+     */
+    public synchronized Stats getStats() {
+        int tasks = entries.values().stream().mapToInt(entry -> entry.tasks.size()).sum();
+        return new Stats(hits, misses, entries.size(), tasks, usedBytes);
+    }
+
+    /**
+     * Caches the list of an owner and evicts other owners if a limit is exceeded.
+     *
+     * @param ownerId the ID of the owner
+     * @param entry   the loaded tasks
+     */
+    private void store(Long ownerId, Entry entry) {
+        Entry previous = entries.put(ownerId, entry);
+        if (previous != null) {
+            usedBytes -= previous.bytes;
+        }
+        usedBytes += entry.bytes;
+        evictIfNeeded();
+    }
+
+    /**
+     * Evicts the least recently used owners until both limits are met.
+     */
+    private void evictIfNeeded() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (eldest.hasNext() && (entries.size() > maxOwners || usedBytes > maxBytes)) {
+            usedBytes -= eldest.next().bytes;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Removes a task from a cached list.
+     *
+     * @param entry  the cached list
+     * @param taskId the ID of the task
+     */
+    private void removeFromEntry(Entry entry, Long taskId) {
+        Iterator<TaskSummary> iterator = entry.tasks.iterator();
+        while (iterator.hasNext()) {
+            TaskSummary task = iterator.next();
+            if (task.id().equals(taskId)) {
+                iterator.remove();
+                entry.bytes -= estimateBytes(task);
+                usedBytes -= estimateBytes(task);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Keeps a filtered, sorted result of an owner, dropping the least recently used one if there
+     * are too many.
+     *
+     * @param entry  the cached list of the owner
+     * @param query  the filter and sort order of the result
+     * @param result the matching tasks in the requested order
+     */
+    private void keepResult(Entry entry, Query query, List<TaskSummary> result) {
+        List<TaskSummary> previous = entry.results.put(query, result);
+        if (previous != null) {
+            addBytes(entry, -REFERENCE_BYTES * previous.size());
+        }
+        addBytes(entry, REFERENCE_BYTES * result.size());
+        Iterator<List<TaskSummary>> eldest = entry.results.values().iterator();
+        while (entry.results.size() > MAX_RESULTS_PER_OWNER) {
+            addBytes(entry, -REFERENCE_BYTES * eldest.next().size());
+            eldest.remove();
+        }
+        evictIfNeeded();
+    }
+
+    /**
+     * Drops the kept results and counts of an owner after its tasks changed.
+     *
+     * @param entry the cached list of the owner
+     */
+    private void dropResults(Entry entry) {
+        entry.version++;
+        for (List<TaskSummary> result : entry.results.values()) {
+            addBytes(entry, -REFERENCE_BYTES * result.size());
+        }
+        entry.results.clear();
+        entry.counts.clear();
+    }
+
+    private void addBytes(Entry entry, long bytes) {
+        entry.bytes += bytes;
+        usedBytes += bytes;
+    }
+
+    private void bumpGeneration(Long ownerId) {
+        generations.merge(ownerId, 1L, Long::sum);
+    }
+
+    /**
+     * Filters and sorts tasks like the database would.
+     *
+     * @param tasks  the tasks of the owner
+     * @param filter the filter
+     * @param sort   the sort order
+     * @return the matching tasks in the requested order
+     */
+    private static List<TaskSummary> filterAndSort(List<TaskSummary> tasks, TaskFilter filter, Sort sort) {
+        return tasks.stream()
+                .filter(matching(filter))
+                .sorted(toComparator(sort))
+                .toList();
+    }
+
+    /**
+     * The in-memory counterpart of {@link com.bbzbl.task.data.filter.TaskSpecifications#matching}
+     * for filters without a keyword.
+     *
+     * @param filter the filter
+     * @return a predicate matching the same tasks as the database query
+     */
+    private static Predicate<TaskSummary> matching(TaskFilter filter) {
+        return task -> (filter.status() == null || filter.status() == task.status())
+                && (filter.priority() == null || filter.priority() == task.priority())
+                && (filter.dueFrom() == null || task.dueDate() != null && !task.dueDate().isBefore(filter.dueFrom()))
+                && (filter.dueTo() == null || task.dueDate() != null && !task.dueDate().isAfter(filter.dueTo()));
+    }
+
+    /**
+     * Builds a comparator equivalent to the SQL {@code ORDER BY} of the sort.
+     * Like SQLite, {@code null} values come first in ascending order. Ties are ordered by ID.
+     *
+     * @param sort the sort order, containing only supported properties
+     * @return the comparator
+     */
+    private static Comparator<TaskSummary> toComparator(Sort sort) {
+        Comparator<TaskSummary> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<TaskSummary> property = comparatorFor(order.getProperty()).orElseThrow();
+            comparator = comparator.thenComparing(order.isAscending() ? property : property.reversed());
+        }
+        return comparator.thenComparing(TaskSummary::id);
+    }
+
+    private static Optional<Comparator<TaskSummary>> comparatorFor(String property) {
+        return Optional.ofNullable(switch (property) {
+            case "id" -> Comparator.comparing(TaskSummary::id);
+            case "title" -> Comparator.comparing(TaskSummary::title, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "status" -> Comparator.comparing(TaskSummary::status, Comparator.nullsFirst(Comparator.comparingInt(TaskStatus::getCode)));
+            case "priority" -> Comparator.comparing(TaskSummary::priority, Comparator.nullsFirst(Comparator.comparingInt(TaskPriority::getCode)));
+            case "durationMinutes" -> Comparator.comparing(TaskSummary::durationMinutes, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "dueDate" -> Comparator.comparing(TaskSummary::dueDate, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "createdAt" -> Comparator.comparing(TaskSummary::createdAt, Comparator.nullsFirst(Comparator.naturalOrder()));
+            default -> null;
+        });
+    }
+
+    /**
+     * Estimates the heap size of a cached task from its text fields.
+     *
+     * @param task the task summary
+     * @return the estimated size in bytes
+     */
+    private static long estimateBytes(TaskSummary task) {
+        return TASK_OVERHEAD_BYTES + 2L * (length(task.title()) + length(task.descriptionPreview()));
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
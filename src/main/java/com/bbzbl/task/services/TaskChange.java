@@ -0,0 +1,62 @@
+package com.bbzbl.task.services;
+
+import com.bbzbl.task.data.repository.TaskSummary;
+
+/**
+ * A committed change of a single task, as delivered to the open views of its owner.
+ *
+ * @param type    what happened to the task
+ * @param ownerId the ID of the task owner
+ * @param taskId  the ID of the changed task, or null for a bulk change
+ * @param task    the task as committed, or null if it was deleted or for a bulk change
+ */
+public record TaskChange(Type type, Long ownerId, Long taskId, TaskSummary task) {
+
+    /**
+     * The kinds of task changes.
+     */
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        /**
+         * Many tasks of the owner changed at once; the views read their tasks again.
+         */
+        BULK
+    }
+
+    /**
+     * @param ownerId the ID of the task owner
+     * @param task    the new task
+     * @return the change announcing the new task
+     */
+    public static TaskChange created(Long ownerId, TaskSummary task) {
+        return new TaskChange(Type.CREATED, ownerId, task.id(), task);
+    }
+
+    /**
+     * @param ownerId the ID of the task owner
+     * @param task    the task as committed
+     * @return the change announcing the new state of the task
+     */
+    public static TaskChange updated(Long ownerId, TaskSummary task) {
+        return new TaskChange(Type.UPDATED, ownerId, task.id(), task);
+    }
+
+    /**
+     * @param ownerId the ID of the task owner
+     * @param taskId  the ID of the deleted task
+     * @return the change announcing the deletion
+     */
+    public static TaskChange deleted(Long ownerId, Long taskId) {
+        return new TaskChange(Type.DELETED, ownerId, taskId, null);
+    }
+
+    /**
+     * @param ownerId the ID of the task owner
+     * @return the change announcing that many tasks of the owner changed at once
+     */
+    public static TaskChange bulk(Long ownerId) {
+        return new TaskChange(Type.BULK, ownerId, null, null);
+    }
+}
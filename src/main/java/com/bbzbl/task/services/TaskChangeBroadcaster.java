@@ -0,0 +1,122 @@
+package com.bbzbl.task.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * In-process event bus delivering committed task changes to the open views of the task owner.
+ * <p>
+ * {@link TaskService} publishes every change after its commit. Publishing only queues the change
+ * for each listener of the owner; the listeners are called on threads of the view executor, one
+ * thread per listener at a time. A listener therefore sees the changes in commit order, and a
+ * slow listener, e.g. a view that reads its rows and pushes them through {@code UI.access},
+ * never delays a mutation or the delivery to the views of other sessions or users.
+ */
+@Component
+public class TaskChangeBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskChangeBroadcaster.class);
+
+    /**
+     * A registered listener with the changes it was not called with yet.
+     */
+    private final class Subscription {
+        private final Consumer<TaskChange> listener;
+        private final Queue<TaskChange> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscription(Consumer<TaskChange> listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * Queues a change and starts a delivery unless one is already running.
+         */
+        private void offer(TaskChange change) {
+            pending.add(change);
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::deliver);
+                } catch (RejectedExecutionException e) {
+                    logger.debug("Dropped the change of task {}; the executor is shut down.", change.taskId());
+                    pending.clear();
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        /**
+         * Calls the listener with the queued changes, in order, until none is left.
+         */
+        private void deliver() {
+            do {
+                TaskChange change;
+                while ((change = pending.poll()) != null && !closed) {
+                    try {
+                        listener.accept(change);
+                    } catch (RuntimeException e) {
+                        logger.warn("Delivering the change of task {} failed.", change.taskId(), e);
+                    }
+                }
+                scheduled.set(false);
+                // A change queued after the last poll, but before the flag was reset, starts no delivery of its own
+            } while (!pending.isEmpty() && !closed && scheduled.compareAndSet(false, true));
+        }
+    }
+
+    private final Map<Long, List<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final Executor executor;
+
+    /**
+     * Constructor for injecting dependencies.
+     *
+     * @param executor the executor calling the listeners, on a virtual thread per delivery
+     */
+    public TaskChangeBroadcaster(@Qualifier("viewExecutor") Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Registers a listener for the changes of an owner's tasks.
+     *
+     * @param ownerId  the ID of the owner
+     * @param listener called with every change of the owner's tasks
+     * @return removes the listener again
+     */
+    public Runnable subscribe(Long ownerId, Consumer<TaskChange> listener) {
+        Subscription subscription = new Subscription(listener);
+        subscriptions.computeIfAbsent(ownerId, id -> new CopyOnWriteArrayList<>()).add(subscription);
+        return () -> {
+            subscription.closed = true;
+            subscriptions.computeIfPresent(ownerId, (id, owned) -> {
+                owned.remove(subscription);
+                return owned.isEmpty() ? null : owned;
+            });
+        };
+    }
+
+    /**
+     * Queues a committed change for the listeners of its owner.
+     *
+     * @param change the change
+     */
+    public void publish(TaskChange change) {
+        for (Subscription subscription : subscriptions.getOrDefault(change.ownerId(), List.of())) {
+            subscription.offer(change);
+        }
+    }
+}
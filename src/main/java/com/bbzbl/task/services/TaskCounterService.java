@@ -0,0 +1,146 @@
+package com.bbzbl.task.services;
+
+import com.bbzbl.task.data.entity.TaskPriority;
+import com.bbzbl.task.data.entity.TaskStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Reads and maintains the per-owner task counters in the {@code task_counter} table.
+ * <p>
+ * The counters are updated by database triggers in the same transaction as every insert,
+ * update and delete of a task, so they are always consistent with the committed tasks.
+ * {@link #verify()} compares them with a full count of the task table, and {@link #rebuild()}
+ * recomputes them, e.g. after tasks were changed while the triggers were missing.
+ */
+@Service
+public class TaskCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskCounterService.class);
+
+    /**
+     * The priority code stored for tasks without a priority.
+     */
+    private static final int NO_PRIORITY = -1;
+
+    private static final String COUNT_TASKS = """
+            SELECT owner_id, status, IFNULL(priority, -1), COUNT(*), IFNULL(SUM(duration_minutes), 0)
+            FROM task
+            WHERE owner_id IS NOT NULL
+            GROUP BY owner_id, status, IFNULL(priority, -1)""";
+
+    private static final String STORED_COUNTERS = """
+            SELECT owner_id, status, priority, task_count, duration_minutes
+            FROM task_counter
+            WHERE task_count <> 0 OR duration_minutes <> 0""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskWriteQueue writeQueue;
+    private final boolean verifyOnStartup;
+
+    /**
+     * Constructor for injecting dependencies.
+     *
+     * @param jdbcTemplate    template bound to the application's data source
+     * @param writeQueue      queue through which the rebuild is committed
+     * @param verifyOnStartup whether the counters are verified and repaired at startup
+     */
+    public TaskCounterService(JdbcTemplate jdbcTemplate, TaskWriteQueue writeQueue,
+                              @Value("${taskapp.task-counter.verify-on-startup:true}") boolean verifyOnStartup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeQueue = writeQueue;
+        this.verifyOnStartup = verifyOnStartup;
+    }
+
+    /**
+     * Reads the counters of an owner.
+     *
+     * @param ownerId the ID of the owner
+     * @return the owner's task counters
+     */
+    @Transactional(readOnly = true)
+    public TaskCounts getCounts(Long ownerId) {
+        Map<TaskStatus, Long> byStatus = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            byStatus.put(status, 0L);
+        }
+        Map<TaskPriority, Long> byPriority = new EnumMap<>(TaskPriority.class);
+        for (TaskPriority priority : TaskPriority.values()) {
+            byPriority.put(priority, 0L);
+        }
+        long[] withoutPriority = new long[1];
+        long[] durationMinutes = new long[1];
+
+        jdbcTemplate.query("SELECT status, priority, task_count, duration_minutes FROM task_counter WHERE owner_id = ?",
+                resultSet -> {
+                    long count = resultSet.getLong("task_count");
+                    int priority = resultSet.getInt("priority");
+                    byStatus.merge(TaskStatus.fromCode(resultSet.getInt("status")), count, Long::sum);
+                    if (priority == NO_PRIORITY) {
+                        withoutPriority[0] += count;
+                    } else {
+                        byPriority.merge(TaskPriority.fromCode(priority), count, Long::sum);
+                    }
+                    durationMinutes[0] += resultSet.getLong("duration_minutes");
+                }, ownerId);
+
+        return new TaskCounts(Collections.unmodifiableMap(byStatus), Collections.unmodifiableMap(byPriority),
+                withoutPriority[0], durationMinutes[0]);
+    }
+
+    /**
+     * Compares the stored counters with a full count of the task table.
+     *
+     * @return the number of counter rows that differ from the actual counts
+     */
+    @Transactional(readOnly = true)
+    public long verify() {
+        Long differences = jdbcTemplate.queryForObject(
+                "SELECT (SELECT COUNT(*) FROM (" + STORED_COUNTERS + " EXCEPT " + COUNT_TASKS + "))"
+                        + " + (SELECT COUNT(*) FROM (" + COUNT_TASKS + " EXCEPT " + STORED_COUNTERS + "))",
+                Long.class);
+        return differences == null ? 0 : differences;
+    }
+
+    /**
+     * Recomputes all counters from the task table in one writing transaction.
+     *
+     * @throws IllegalStateException if the write queue does not accept the rebuild
+     */
+    public void rebuild() {
+        writeQueue.submit(() -> {
+            jdbcTemplate.update("DELETE FROM task_counter");
+            return jdbcTemplate.update("INSERT INTO task_counter (owner_id, status, priority, task_count, duration_minutes) "
+                    + COUNT_TASKS);
+        }).join();
+    }
+
+    /**
+     * Bean that runs on application startup to verify the counters and rebuild them if they differ.
+     *
+     * @return an ApplicationRunner that repairs inconsistent counters
+     */
+    @Bean
+    public ApplicationRunner verifyTaskCounters() {
+        return args -> {
+            if (!verifyOnStartup) {
+                return;
+            }
+            long differences = verify();
+            if (differences > 0) {
+                logger.warn("{} task counters differ from the task table, rebuilding them.", differences);
+                rebuild();
+            }
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package com.bbzbl.task.services;
+
+import com.bbzbl.task.data.entity.TaskPriority;
+import com.bbzbl.task.data.entity.TaskStatus;
+
+import java.util.Map;
+
+/**
+ * Task counters of one owner, read from the counter table without touching any task rows.
+ *
+ * @param byStatus             the number of tasks per status, containing every status
+ * @param byPriority           the number of tasks per priority, containing every priority
+ * @param withoutPriority      the number of tasks without a priority
+ * @param totalDurationMinutes the summed estimated duration of all tasks, in minutes
+ */
+public record TaskCounts(Map<TaskStatus, Long> byStatus, Map<TaskPriority, Long> byPriority,
+                         long withoutPriority, long totalDurationMinutes) {
+
+    /**
+     * @return the total number of tasks
+     */
+    public long total() {
+        return byStatus.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * @param status the status
+     * @return the number of tasks with the status
+     */
+    public long count(TaskStatus status) {
+        return byStatus.getOrDefault(status, 0L);
+    }
+}
@@ -0,0 +1,22 @@
+package com.bbzbl.task.services;
+
+import com.bbzbl.task.data.repository.TaskSummary;
+
+import java.util.List;
+
+/**
+ * Summary of a user's tasks for the home page, computed from the task counters and limited queries.
+ * The lists are limited; the counts always cover all matching tasks.
+ *
+ * @param counts         the owner's task counters
+ * @param overdueCount   the number of unfinished tasks that are past their due date
+ * @param overdue        the overdue tasks with the earliest due dates
+ * @param upcomingCount  the number of unfinished tasks due within the upcoming days
+ * @param upcoming       the upcoming tasks with the earliest due dates
+ * @param nextDeadline   the unfinished task with the earliest due date, or null if there is none
+ */
+public record TaskDashboard(TaskCounts counts,
+                            long overdueCount, List<TaskSummary> overdue,
+                            long upcomingCount, List<TaskSummary> upcoming,
+                            TaskSummary nextDeadline) {
+}
@@ -0,0 +1,227 @@
+package com.bbzbl.task.services;
+
+import com.bbzbl.task.data.entity.Task;
+import com.bbzbl.task.data.entity.User;
+import com.bbzbl.task.data.repository.TaskRepository;
+import com.bbzbl.task.security.AuthenticatedUser;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports all tasks of a user as CSV or JSON, optionally gzip-compressed.
+ * <p>
+ * The tasks are never collected in a list: they are streamed from the database through a
+ * forward-only cursor in a read-only transaction and written to the output stream one by one,
+ * so the memory use stays the same for ten or a million tasks. The owner is resolved when the
+ * export is prepared, on the thread of the view; the tasks are written later, when the browser
+ * requests the download.
+ */
+@Service
+public class TaskExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskExporter.class);
+
+    /**
+     * The exported columns, in order; the CSV header and the JSON property names.
+     * {@link TaskImporter} reads the same columns.
+     */
+    static final String[] COLUMNS = {
+            "id", "title", "description", "status", "priority", "dueDate", "durationMinutes", "createdAt"
+    };
+
+    /**
+     * The supported file formats.
+     */
+    public enum Format {
+        CSV("csv", "text/csv"),
+        JSON("json", "application/json");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+    }
+
+    /**
+     * An export of the tasks of one owner, prepared for a later download.
+     *
+     * @param ownerId the ID of the task owner
+     * @param format  the file format
+     * @param gzip    whether the file is gzip-compressed
+     */
+    public record Export(Long ownerId, Format format, boolean gzip) {
+
+        /**
+         * @return the name of the downloaded file, e.g. {@code tasks-2025-03-01.csv.gz}
+         */
+        public String fileName() {
+            return "tasks-" + LocalDate.now() + "." + format.extension + (gzip ? ".gz" : "");
+        }
+
+        /**
+         * @return the MIME type of the downloaded file
+         */
+        public String contentType() {
+            return gzip ? "application/gzip" : format.contentType;
+        }
+    }
+
+    private final TaskRepository taskRepository;
+    private final AuthenticatedUser authenticatedUser;
+    private final TransactionTemplate readTransaction;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final int fetchSize;
+
+    /**
+     * Constructor for injecting dependencies.
+     *
+     * @param taskRepository     repository streaming the tasks
+     * @param authenticatedUser  current authenticated user provider
+     * @param transactionManager the transaction manager, used to read from the reader pool
+     * @param fetchSize          the number of rows the driver reads from the database at once
+     */
+    public TaskExporter(TaskRepository taskRepository, AuthenticatedUser authenticatedUser,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${taskapp.export.fetch-size:500}") int fetchSize) {
+        this.taskRepository = taskRepository;
+        this.authenticatedUser = authenticatedUser;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Prepares an export of the currently authenticated user's tasks.
+     *
+     * @param format the file format
+     * @param gzip   whether the file is gzip-compressed
+     * @return the export, to be written with {@link #write}
+     * @throws RuntimeException if no user is authenticated
+     */
+    public Export prepare(Format format, boolean gzip) {
+        Long ownerId = authenticatedUser.get()
+                .map(User::getId)
+                .orElseThrow(() -> new RuntimeException("User not authenticated"));
+        return new Export(ownerId, format, gzip);
+    }
+
+    /**
+     * Writes the tasks of the export's owner, in ID order, to the output stream, which is closed afterwards.
+     *
+     * @param export the prepared export
+     * @param out    the stream to write to, e.g. the response of the download
+     * @return the number of exported tasks
+     * @throws IOException if writing to the stream fails
+     */
+    public long write(Export export, OutputStream out) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                export.gzip() ? new GZIPOutputStream(out, 8192) : out, StandardCharsets.UTF_8))) {
+            long count = readTransaction.execute(status -> {
+                try (Stream<Task> tasks = taskRepository.streamAllOfOwner(export.ownerId(), fetchSize)) {
+                    return export.format() == Format.CSV ? writeCsv(tasks.iterator(), writer) : writeJson(tasks.iterator(), writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            logger.debug("Exported {} tasks of owner {} as {}.", count, export.ownerId(), export.fileName());
+            return count;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static long writeCsv(Iterator<Task> tasks, Writer writer) throws IOException {
+        writer.write(String.join(",", COLUMNS));
+        writer.write("\r\n");
+        long count = 0;
+        while (tasks.hasNext()) {
+            Task task = tasks.next();
+            Object[] values = {
+                    task.getId(), task.getTitle(), task.getDescription(), task.getStatus(), task.getPriority(),
+                    task.getDueDate(), task.getDurationMinutes(), task.getCreatedAt()
+            };
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (values[i] != null) {
+                    writer.write(csvField(values[i].toString()));
+                }
+            }
+            writer.write("\r\n");
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Quotes a CSV field if it contains a separator, a quote or a line break (RFC 4180).
+     */
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private long writeJson(Iterator<Task> tasks, Writer writer) throws IOException {
+        // The generator must not close the writer, which also finishes the gzip stream
+        try (JsonGenerator json = jsonFactory.createGenerator(writer)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            json.writeStartArray();
+            long count = 0;
+            while (tasks.hasNext()) {
+                Task task = tasks.next();
+                json.writeStartObject();
+                json.writeNumberField(COLUMNS[0], task.getId());
+                json.writeStringField(COLUMNS[1], task.getTitle());
+                json.writeStringField(COLUMNS[2], task.getDescription());
+                writeNullable(json, COLUMNS[3], task.getStatus());
+                writeNullable(json, COLUMNS[4], task.getPriority());
+                writeNullable(json, COLUMNS[5], task.getDueDate());
+                if (task.getDurationMinutes() != null) {
+                    json.writeNumberField(COLUMNS[6], task.getDurationMinutes());
+                } else {
+                    json.writeNullField(COLUMNS[6]);
+                }
+                writeNullable(json, COLUMNS[7], task.getCreatedAt());
+                json.writeEndObject();
+                count++;
+            }
+            json.writeEndArray();
+            return count;
+        }
+    }
+
+    /**
+     * Writes a value as string, or {@code null} if there is none.
+     */
+    private static void writeNullable(JsonGenerator json, String name, Object value) throws IOException {
+        if (value != null) {
+            json.writeStringField(name, value.toString());
+        } else {
+            json.writeNullField(name);
+        }
+    }
+}
@@ -0,0 +1,956 @@
+package com.bbzbl.task.services;
+
+import com.bbzbl.task.data.entity.TaskPriority;
+import com.bbzbl.task.data.entity.TaskStatus;
+import com.bbzbl.task.data.entity.User;
+import com.bbzbl.task.security.AuthenticatedUser;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Imports tasks from CSV or JSON files with the columns written by {@link TaskExporter},
+ * optionally gzip-compressed.
+ * <p>
+ * Every import runs through a pipeline of bounded queues, so a file of any size is imported
+ * with constant memory:
+ * <ol>
+ *     <li>a reader thread splits the file into records and passes them on in batches,</li>
+ *     <li>several worker threads convert and validate the batches in parallel,</li>
+ *     <li>a writer thread inserts the valid tasks in chunks, one transaction of the
+ *     {@link TaskWriteQueue} per chunk, with multi-row {@code INSERT} statements.</li>
+ * </ol>
+ * A full queue blocks the stage before it, so the reader never runs further ahead of the
+ * writer than the queues hold. Invalid records are counted and reported with their number
+ * instead of aborting the import.
+ * <p>
+ * Every imported task gets a key, unique per owner: the hash of its content and the number of
+ * equal records before it in the file. The {@code id} column is not part of the key, as files
+ * from different sources number their records alike. Importing the same file again, e.g. after
+ * an aborted import, therefore skips the tasks that already exist instead of creating
+ * duplicates. A record whose {@code id} names an existing task of the owner with the same
+ * content is skipped as well, so an export of this application can be imported again. Skipped
+ * records are counted and reported with their number and reason, like invalid ones.
+ */
+@Service
+public class TaskImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskImporter.class);
+
+    /**
+     * The number of records the reader passes on at once.
+     */
+    private static final int BATCH_SIZE = 256;
+
+    /**
+     * The maximum number of invalid and of skipped records kept for the result; further ones are only counted.
+     */
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    /**
+     * The number of parameters bound per inserted task.
+     */
+    private static final int INSERT_PARAMETERS = 9;
+
+    /**
+     * The maximum number of tasks per {@code INSERT}; SQLite binds at most 999 parameters per statement.
+     */
+    private static final int ROWS_PER_INSERT = 999 / INSERT_PARAMETERS;
+
+    private static final String INSERT = "INSERT INTO task "
+            + "(title, description, status, priority, due_date, duration_minutes, created_at, version, owner_id, import_key) VALUES ";
+
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, 0, ?, ?)";
+
+    // Indexes of the columns in TaskExporter.COLUMNS
+    private static final int ID = 0;
+    private static final int TITLE = 1;
+    private static final int DESCRIPTION = 2;
+    private static final int STATUS = 3;
+    private static final int PRIORITY = 4;
+    private static final int DUE_DATE = 5;
+    private static final int DURATION_MINUTES = 6;
+    private static final int CREATED_AT = 7;
+
+    private static final DateTimeFormatter GERMAN_DATE = DateTimeFormatter.ofPattern("d.M.yyyy", Locale.GERMAN);
+
+    /**
+     * An import into the tasks of one owner, prepared for a file that is still uploading.
+     *
+     * @param ownerId the ID of the task owner
+     * @param format  the file format
+     */
+    public record Import(Long ownerId, TaskExporter.Format format) {
+    }
+
+    /**
+     * A record that was not imported.
+     *
+     * @param record  the number of the record in the file, starting at 1
+     * @param message why the record was rejected or skipped
+     */
+    public record RowError(long record, String message) {
+    }
+
+    /**
+     * The state of a running import, reported after every committed chunk.
+     *
+     * @param read     the number of records read so far
+     * @param imported the number of tasks created
+     * @param skipped  the number of records skipped because their task already exists
+     * @param failed   the number of invalid records
+     * @param fraction the share of the file read so far, between 0 and 1
+     */
+    public record Progress(long read, long imported, long skipped, long failed, double fraction) {
+    }
+
+    /**
+     * The outcome of a completed import.
+     *
+     * @param read           the number of records in the file
+     * @param imported       the number of tasks created
+     * @param skipped        the number of records skipped because their task already exists
+     * @param failed         the number of invalid records
+     * @param errors         the errors of the first {@value #MAX_REPORTED_ERRORS} invalid records, by record number
+     * @param skippedRecords the first {@value #MAX_REPORTED_ERRORS} skipped records and why they were skipped,
+     *                       by record number
+     */
+    public record Result(long read, long imported, long skipped, long failed, List<RowError> errors,
+                         List<RowError> skippedRecords) {
+    }
+
+    /**
+     * A record as read from the file: its values in the order of the columns, not yet validated.
+     *
+     * @param number  the number of the record in the file
+     * @param values  the values, null for missing columns
+     * @param problem why the record cannot be read, or null
+     */
+    private record RawRecord(long number, String[] values, String problem) {
+    }
+
+    /**
+     * A validated task, ready to be inserted.
+     *
+     * @param number   the number of the record in the file
+     * @param sourceId the value of the {@code id} column if it is a number, e.g. in an export of this application
+     * @param key      the hash of the content; the import key once {@code numbered} is set
+     * @param numbered whether the key includes the number of equal records before the record
+     */
+    private record ImportRow(long number, Long sourceId, String title, String description, TaskStatus status,
+                             TaskPriority priority, LocalDate dueDate, Integer durationMinutes,
+                             LocalDateTime createdAt, String key, boolean numbered) {
+
+        /**
+         * @return true if the task has the same content as the stored task, ignoring blank descriptions
+         */
+        boolean hasContentOf(StoredTask task) {
+            return title.equals(trimToNull(task.title()))
+                    && Objects.equals(trimToNull(description), trimToNull(task.description()))
+                    && status == task.status()
+                    && priority == task.priority()
+                    && Objects.equals(dueDate, task.dueDate())
+                    && Objects.equals(durationMinutes, task.durationMinutes());
+        }
+    }
+
+    /**
+     * The content of a task of the owner, read to recognize records of an export of this application.
+     */
+    private record StoredTask(String title, String description, TaskStatus status, TaskPriority priority,
+                              LocalDate dueDate, Integer durationMinutes) {
+    }
+
+    /**
+     * The outcome of a committed chunk.
+     *
+     * @param imported the number of created tasks
+     * @param skipped  the records skipped because their task already exists
+     */
+    private record ChunkResult(int imported, List<RowError> skipped) {
+    }
+
+    /**
+     * Records passed from the reader to the workers.
+     *
+     * @param records  the records
+     * @param position the share of the file read up to the end of the batch
+     */
+    private record RawBatch(List<RawRecord> records, double position) {
+
+        /**
+         * Marks the end of the file; every worker puts it back for the others.
+         */
+        static final RawBatch END = new RawBatch(List.of(), 1);
+    }
+
+    /**
+     * Validated records passed from a worker to the writer.
+     *
+     * @param rows     the valid tasks
+     * @param errors   the errors of the invalid records
+     * @param position the share of the file read up to the end of the batch
+     */
+    private record ValidBatch(List<ImportRow> rows, List<RowError> errors, double position) {
+
+        /**
+         * Marks that a worker is done; the writer stops once every worker is.
+         */
+        static final ValidBatch END = new ValidBatch(List.of(), List.of(), 1);
+    }
+
+    /**
+     * The body of a pipeline stage.
+     */
+    @FunctionalInterface
+    private interface Stage {
+        void run() throws Exception;
+    }
+
+    /**
+     * Reads the records of a file one at a time.
+     */
+    private interface RecordReader {
+
+        /**
+         * @param number the number of the record
+         * @return the next record, or null at the end of the file
+         * @throws IOException if reading the file fails
+         */
+        RawRecord next(long number) throws IOException;
+    }
+
+    private final AuthenticatedUser authenticatedUser;
+    private final TaskWriteQueue writeQueue;
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskCache taskCache;
+    private final TaskChangeBroadcaster changeBroadcaster;
+    private final ChangeFeed changeFeed;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final int workers;
+    private final int chunkSize;
+    private final int queueCapacity;
+
+    /**
+     * Constructor for injecting dependencies and settings.
+     *
+     * @param authenticatedUser current authenticated user provider
+     * @param writeQueue        queue through which the chunks are committed
+     * @param jdbcTemplate      template bound to the application's data source
+     * @param taskCache         per-owner cache of the task lists, invalidated after every chunk
+     * @param changeBroadcaster delivers the import to the open views of the owner
+     * @param changeFeed        records the import for the other nodes sharing the database
+     * @param workers           the number of threads validating records in parallel
+     * @param chunkSize         the number of tasks inserted per transaction
+     * @param queueCapacity     the number of batches each queue of the pipeline holds
+     */
+    public TaskImporter(AuthenticatedUser authenticatedUser, TaskWriteQueue writeQueue, JdbcTemplate jdbcTemplate,
+                        TaskCache taskCache, TaskChangeBroadcaster changeBroadcaster, ChangeFeed changeFeed,
+                        @Value("${taskapp.import.workers:4}") int workers,
+                        @Value("${taskapp.import.chunk-size:2000}") int chunkSize,
+                        @Value("${taskapp.import.queue-capacity:16}") int queueCapacity) {
+        this.authenticatedUser = authenticatedUser;
+        this.writeQueue = writeQueue;
+        this.jdbcTemplate = jdbcTemplate;
+        this.taskCache = taskCache;
+        this.changeBroadcaster = changeBroadcaster;
+        this.changeFeed = changeFeed;
+        this.workers = workers;
+        this.chunkSize = chunkSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Determines the format of a file from its name, e.g. {@code tasks.csv} or {@code tasks.json.gz}.
+     *
+     * @param fileName the name of the file
+     * @return the format, or empty if the file is neither CSV nor JSON
+     */
+    public static Optional<TaskExporter.Format> formatOf(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - 3);
+        }
+        if (name.endsWith(".csv")) {
+            return Optional.of(TaskExporter.Format.CSV);
+        }
+        if (name.endsWith(".json")) {
+            return Optional.of(TaskExporter.Format.JSON);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Prepares an import into the currently authenticated user's tasks.
+     *
+     * @param format the file format
+     * @return the import, to be started with {@link #start}
+     * @throws RuntimeException if no user is authenticated
+     */
+    public Import prepare(TaskExporter.Format format) {
+        Long ownerId = authenticatedUser.get()
+                .map(User::getId)
+                .orElseThrow(() -> new RuntimeException("User not authenticated"));
+        return new Import(ownerId, format);
+    }
+
+    /**
+     * Starts importing a file in the background. Chunks committed before a failure stay
+     * imported; importing the file again continues where the failed import stopped.
+     *
+     * @param request  the prepared import
+     * @param file     the file, gzip-compressed or not; must not be deleted before the import completes
+     * @param progress called after every committed chunk, from the writer thread
+     * @return a future completed with the result, or failed with an {@link IllegalArgumentException}
+     * if the file is not valid CSV or JSON
+     */
+    public CompletableFuture<Result> start(Import request, Path file, Consumer<Progress> progress) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService pipeline = Executors.newFixedThreadPool(workers + 2, runnable -> {
+            Thread thread = new Thread(runnable, "taskapp-import-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        BlockingQueue<RawBatch> rawBatches = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<ValidBatch> validBatches = new ArrayBlockingQueue<>(queueCapacity);
+        CompletableFuture<Result> result = new CompletableFuture<>();
+
+        pipeline.execute(stage(result, () -> read(request.format(), file, rawBatches)));
+        for (int i = 0; i < workers; i++) {
+            pipeline.execute(stage(result, () -> validate(rawBatches, validBatches)));
+        }
+        pipeline.execute(stage(result, () -> result.complete(write(request.ownerId(), validBatches, progress))));
+        // Registered after all stages are running: a failed stage stops the others, which are
+        // blocked on a queue or the write queue
+        result.whenComplete((done, failure) -> pipeline.shutdownNow());
+        return result;
+    }
+
+    private static Runnable stage(CompletableFuture<Result> result, Stage stage) {
+        return () -> {
+            try {
+                stage.run();
+            } catch (InterruptedException e) {
+                // Another stage failed and stopped the pipeline
+                Thread.currentThread().interrupt();
+            } catch (IllegalArgumentException e) {
+                logger.debug("Import rejected: {}", e.getMessage());
+                result.completeExceptionally(e);
+            } catch (Exception e) {
+                logger.warn("Import failed.", e);
+                result.completeExceptionally(e);
+            }
+        };
+    }
+
+    /**
+     * The reader stage: splits the file into records and passes them to the workers in batches.
+     */
+    private void read(TaskExporter.Format format, Path file, BlockingQueue<RawBatch> rawBatches)
+            throws IOException, InterruptedException {
+        try (FileInputStream fileIn = new FileInputStream(file.toFile())) {
+            FileChannel channel = fileIn.getChannel();
+            long size = Math.max(channel.size(), 1);
+            InputStream in = new BufferedInputStream(fileIn, 65536);
+            in.mark(2);
+            boolean gzip = in.read() == 0x1f && in.read() == 0x8b;
+            in.reset();
+            if (gzip) {
+                in = new GZIPInputStream(in, 65536);
+            }
+            Reader text = new InputStreamReader(in, StandardCharsets.UTF_8);
+            RecordReader records = format == TaskExporter.Format.CSV
+                    ? new CsvRecordReader(text)
+                    : new JsonRecordReader(jsonFactory.createParser(text));
+
+            List<RawRecord> batch = new ArrayList<>(BATCH_SIZE);
+            long number = 0;
+            RawRecord record;
+            while ((record = records.next(number + 1)) != null) {
+                number++;
+                batch.add(record);
+                if (batch.size() == BATCH_SIZE) {
+                    rawBatches.put(new RawBatch(batch, (double) channel.position() / size));
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty()) {
+                rawBatches.put(new RawBatch(batch, 1));
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Ungültiges JSON: " + e.getOriginalMessage(), e);
+        }
+        rawBatches.put(RawBatch.END);
+    }
+
+    /**
+     * A worker stage: validates batches until the end of the file.
+     */
+    private void validate(BlockingQueue<RawBatch> rawBatches, BlockingQueue<ValidBatch> validBatches)
+            throws InterruptedException {
+        MessageDigest digest = sha256();
+        while (true) {
+            RawBatch batch = rawBatches.take();
+            if (batch == RawBatch.END) {
+                rawBatches.put(RawBatch.END);
+                validBatches.put(ValidBatch.END);
+                return;
+            }
+            List<ImportRow> rows = new ArrayList<>(batch.records().size());
+            List<RowError> errors = new ArrayList<>();
+            for (RawRecord record : batch.records()) {
+                try {
+                    rows.add(toRow(record, digest));
+                } catch (IllegalArgumentException e) {
+                    errors.add(new RowError(record.number(), e.getMessage()));
+                }
+            }
+            validBatches.put(new ValidBatch(rows, errors, batch.position()));
+        }
+    }
+
+    /**
+     * The writer stage: inserts the valid tasks in chunks until every worker is done.
+     */
+    private Result write(Long ownerId, BlockingQueue<ValidBatch> validBatches, Consumer<Progress> progress)
+            throws Exception {
+        MessageDigest digest = sha256();
+        Map<String, Integer> equalRecords = new HashMap<>();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        List<RowError> errors = new ArrayList<>();
+        List<RowError> skippedRecords = new ArrayList<>();
+        long read = 0;
+        long written = 0;
+        long imported = 0;
+        long failed = 0;
+        boolean submitted = false;
+        double position = 0;
+        int finishedWorkers = 0;
+        try {
+            while (finishedWorkers < workers) {
+                ValidBatch batch = validBatches.take();
+                if (batch == ValidBatch.END) {
+                    finishedWorkers++;
+                    continue;
+                }
+                read += batch.rows().size() + batch.errors().size();
+                failed += batch.errors().size();
+                position = Math.max(position, batch.position());
+                addReported(errors, batch.errors());
+                for (ImportRow row : batch.rows()) {
+                    chunk.add(withUniqueKey(row, equalRecords, digest));
+                    if (chunk.size() == chunkSize) {
+                        submitted = true;
+                        imported += insert(ownerId, chunk, skippedRecords);
+                        written += chunk.size();
+                        chunk.clear();
+                        report(progress, new Progress(read, imported, written - imported, failed, position));
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submitted = true;
+                imported += insert(ownerId, chunk, skippedRecords);
+                written += chunk.size();
+            }
+        } finally {
+            // Also after a failure, as the chunks committed before stay imported
+            if (submitted) {
+                taskCache.invalidate(ownerId);
+                changeBroadcaster.publish(TaskChange.bulk(ownerId));
+            }
+        }
+        errors.sort(Comparator.comparingLong(RowError::record));
+        skippedRecords.sort(Comparator.comparingLong(RowError::record));
+        logger.info("Imported {} of {} tasks for owner {}, {} skipped, {} invalid.",
+                imported, read, ownerId, written - imported, failed);
+        return new Result(read, imported, written - imported, failed, List.copyOf(errors), List.copyOf(skippedRecords));
+    }
+
+    /**
+     * Adds records to a report until it holds {@value #MAX_REPORTED_ERRORS}; further ones are only counted.
+     */
+    private static void addReported(List<RowError> report, List<RowError> records) {
+        for (RowError record : records) {
+            if (report.size() == MAX_REPORTED_ERRORS) {
+                return;
+            }
+            report.add(record);
+        }
+    }
+
+    private static void report(Consumer<Progress> progress, Progress state) {
+        try {
+            progress.accept(state);
+        } catch (RuntimeException e) {
+            // E.g. the view was closed meanwhile; the import goes on
+            logger.debug("Reporting the import progress failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Completes the content key with the number of equal records before the record, so equal
+     * records in one file are all imported, and again skipped on the next import.
+     */
+    private static ImportRow withUniqueKey(ImportRow row, Map<String, Integer> equalRecords, MessageDigest digest) {
+        int before = equalRecords.merge(row.key(), 1, Integer::sum) - 1;
+        String key = before == 0 ? row.key() : hash(digest, row.key(), Integer.toString(before));
+        return new ImportRow(row.number(), row.sourceId(), row.title(), row.description(), row.status(),
+                row.priority(), row.dueDate(), row.durationMinutes(), row.createdAt(), key, true);
+    }
+
+    /**
+     * Commits a chunk of tasks in one transaction of the write queue and waits for the commit.
+     * Tasks that already exist for the owner are skipped and added to the report.
+     *
+     * @param skippedRecords the report of the skipped records
+     * @return the number of created tasks
+     */
+    private int insert(Long ownerId, List<ImportRow> chunk, List<RowError> skippedRecords) throws Exception {
+        List<ImportRow> rows = List.copyOf(chunk);
+        CompletableFuture<ChunkResult> committed = writeQueue.submit(() -> {
+            int inserted = 0;
+            List<RowError> skipped = new ArrayList<>();
+            for (int from = 0; from < rows.size(); from += ROWS_PER_INSERT) {
+                List<ImportRow> missing = withoutExisting(ownerId,
+                        rows.subList(from, Math.min(from + ROWS_PER_INSERT, rows.size())), skipped);
+                if (!missing.isEmpty()) {
+                    inserted += insertRows(ownerId, missing);
+                }
+            }
+            if (inserted > 0) {
+                changeFeed.recordBulkTaskChange(ownerId);
+            }
+            return new ChunkResult(inserted, skipped);
+        });
+        try {
+            ChunkResult result = committed.get();
+            if (result.imported() > 0) {
+                taskCache.invalidate(ownerId);
+            }
+            addReported(skippedRecords, result.skipped());
+            return result.imported();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    /**
+     * Removes the tasks that already exist for the owner from a part of a chunk and reports them
+     * as skipped: tasks imported before, found by their import key, and tasks exported from this
+     * application, found by their ID and content.
+     *
+     * @param rows    at most {@link #ROWS_PER_INSERT} tasks
+     * @param skipped the report of the skipped records
+     * @return the tasks to insert
+     */
+    private List<ImportRow> withoutExisting(Long ownerId, List<ImportRow> rows, List<RowError> skipped) {
+        List<Object> keyArgs = new ArrayList<>(rows.size() + 1);
+        keyArgs.add(ownerId);
+        rows.forEach(row -> keyArgs.add(row.key()));
+        Set<String> importedKeys = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT import_key FROM task WHERE owner_id = ? AND import_key IN (" + placeholders(rows.size()) + ")",
+                String.class, keyArgs.toArray()));
+
+        List<Object> idArgs = new ArrayList<>(rows.size() + 1);
+        idArgs.add(ownerId);
+        rows.stream().map(ImportRow::sourceId).filter(Objects::nonNull).forEach(idArgs::add);
+        Map<Long, StoredTask> storedTasks = new HashMap<>();
+        if (idArgs.size() > 1) {
+            jdbcTemplate.query("SELECT id, title, description, status, priority, due_date, duration_minutes "
+                            + "FROM task WHERE owner_id = ? AND id IN (" + placeholders(idArgs.size() - 1) + ")",
+                    resultSet -> {
+                        storedTasks.put(resultSet.getLong("id"), toStoredTask(resultSet));
+                    }, idArgs.toArray());
+        }
+
+        List<ImportRow> missing = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            StoredTask stored = row.sourceId() != null ? storedTasks.get(row.sourceId()) : null;
+            if (importedKeys.contains(row.key())) {
+                skipped.add(new RowError(row.number(), "Bereits importiert"));
+            } else if (stored != null && row.hasContentOf(stored)) {
+                skipped.add(new RowError(row.number(), "Entspricht dem bestehenden Task " + row.sourceId()));
+            } else {
+                missing.add(row);
+            }
+        }
+        return missing;
+    }
+
+    private static StoredTask toStoredTask(ResultSet resultSet) throws SQLException {
+        int priority = resultSet.getInt("priority");
+        boolean noPriority = resultSet.wasNull();
+        // Stored like Hibernate stores it: as epoch milliseconds of the local date
+        long dueDate = resultSet.getLong("due_date");
+        boolean noDueDate = resultSet.wasNull();
+        int durationMinutes = resultSet.getInt("duration_minutes");
+        boolean noDuration = resultSet.wasNull();
+        return new StoredTask(resultSet.getString("title"), resultSet.getString("description"),
+                TaskStatus.fromCode(resultSet.getInt("status")),
+                noPriority ? null : TaskPriority.fromCode(priority),
+                noDueDate ? null : new Date(dueDate).toLocalDate(),
+                noDuration ? null : durationMinutes);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    /**
+     * Inserts tasks with a single multi-row {@code INSERT}. The counters and the full-text
+     * index are maintained by the triggers of the task table.
+     */
+    private int insertRows(Long ownerId, List<ImportRow> rows) {
+        StringBuilder sql = new StringBuilder(INSERT);
+        Object[] args = new Object[rows.size() * INSERT_PARAMETERS];
+        int i = 0;
+        for (ImportRow row : rows) {
+            sql.append(i == 0 ? INSERT_ROW : ", " + INSERT_ROW);
+            args[i++] = row.title();
+            args[i++] = row.description();
+            args[i++] = row.status().getCode();
+            args[i++] = row.priority() != null ? row.priority().getCode() : null;
+            // Bound like Hibernate binds them: as epoch milliseconds of the local date and time
+            args[i++] = row.dueDate() != null ? Date.valueOf(row.dueDate()) : null;
+            args[i++] = row.durationMinutes();
+            args[i++] = Timestamp.valueOf(row.createdAt());
+            args[i++] = ownerId;
+            args[i++] = row.key();
+        }
+        sql.append(" ON CONFLICT DO NOTHING");
+        return jdbcTemplate.update(sql.toString(), args);
+    }
+
+    /**
+     * Converts and validates a record.
+     *
+     * @throws IllegalArgumentException with the message for the user if the record is invalid
+     */
+    private static ImportRow toRow(RawRecord record, MessageDigest digest) {
+        if (record.problem() != null) {
+            throw new IllegalArgumentException(record.problem());
+        }
+        String[] values = record.values();
+        String title = trimToNull(values[TITLE]);
+        if (title == null) {
+            throw new IllegalArgumentException("Titel fehlt");
+        }
+        String description = values[DESCRIPTION];
+        TaskStatus status = parseEnum(TaskStatus.class, values[STATUS], "Status");
+        TaskPriority priority = parseEnum(TaskPriority.class, values[PRIORITY], "Priorität");
+        LocalDate dueDate = parseDate(values[DUE_DATE]);
+        Integer durationMinutes = parseDuration(values[DURATION_MINUTES]);
+        LocalDateTime createdAt = parseCreatedAt(values[CREATED_AT]);
+
+        // The content identifies the task; the creation time is left out, as it defaults to now
+        String key = hash(digest, "content", title, description, String.valueOf(status), String.valueOf(priority),
+                String.valueOf(dueDate), String.valueOf(durationMinutes));
+        return new ImportRow(record.number(), parseSourceId(values[ID]), title, description,
+                status != null ? status : TaskStatus.OPEN, priority, dueDate, durationMinutes, createdAt, key, false);
+    }
+
+    /**
+     * @return the ID as a number, or null if there is none or it is not a number, e.g. in files of other applications
+     */
+    private static Long parseSourceId(String value) {
+        String id = trimToNull(value);
+        if (id == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String label) {
+        String name = trimToNull(value);
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unbekannter Wert für " + label + ": " + name
+                    + " (erlaubt: " + Arrays.toString(type.getEnumConstants()) + ")");
+        }
+    }
+
+    private static LocalDate parseDate(String value) {
+        String date = trimToNull(value);
+        if (date == null) {
+            return null;
+        }
+        try {
+            return date.contains(".") ? LocalDate.parse(date, GERMAN_DATE) : LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Ungültiges Fälligkeitsdatum: " + date);
+        }
+    }
+
+    private static Integer parseDuration(String value) {
+        String duration = trimToNull(value);
+        if (duration == null) {
+            return null;
+        }
+        try {
+            int minutes = Integer.parseInt(duration);
+            if (minutes >= 0) {
+                return minutes;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Ungültige Dauer in Minuten: " + duration);
+    }
+
+    private static LocalDateTime parseCreatedAt(String value) {
+        String createdAt = trimToNull(value);
+        if (createdAt == null) {
+            return LocalDateTime.now();
+        }
+        try {
+            return LocalDateTime.parse(createdAt);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Ungültiger Erstellungszeitpunkt: " + createdAt);
+        }
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.strip();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    /**
+     * @return the hex SHA-256 hash of the parts, separated so that no two lists of parts hash alike
+     */
+    private static String hash(MessageDigest digest, String... parts) {
+        digest.reset();
+        for (String part : parts) {
+            digest.update(part == null ? new byte[]{0} : part.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0x1f);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the index of a column in {@link TaskExporter#COLUMNS}, or -1 if the column is not imported
+     */
+    private static int columnIndex(String name) {
+        String column = name.replace("\uFEFF", "").strip();
+        for (int i = 0; i < TaskExporter.COLUMNS.length; i++) {
+            if (TaskExporter.COLUMNS[i].equalsIgnoreCase(column)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads CSV records (RFC 4180) with a header row naming the columns. Quoted fields may
+     * contain separators, quotes and line breaks. Files with {@code ;} as separator, as saved
+     * by spreadsheets in German locales, are recognized by their header.
+     */
+    private static final class CsvRecordReader implements RecordReader {
+
+        private final Reader in;
+        private final char[] buffer = new char[8192];
+        private int length;
+        private int position;
+        private char separator = ',';
+
+        /**
+         * The column of each CSV field, -1 for fields that are not imported.
+         */
+        private final int[] columns;
+
+        CsvRecordReader(Reader in) throws IOException {
+            this.in = in;
+            List<String> header = readFields(0);
+            if (header == null) {
+                throw new IllegalArgumentException("Die Datei ist leer");
+            }
+            if (header.size() == 1 && header.get(0).indexOf(';') >= 0) {
+                separator = ';';
+                header = List.of(header.get(0).split(";", -1));
+            }
+            columns = header.stream().mapToInt(TaskImporter::columnIndex).toArray();
+            if (Arrays.stream(columns).noneMatch(column -> column == TITLE)) {
+                throw new IllegalArgumentException("Die Datei hat keine Spalte \"title\"");
+            }
+        }
+
+        @Override
+        public RawRecord next(long number) throws IOException {
+            List<String> fields;
+            do {
+                fields = readFields(number);
+            } while (fields != null && fields.size() == 1 && fields.get(0).isBlank());
+            if (fields == null) {
+                return null;
+            }
+            String[] values = new String[TaskExporter.COLUMNS.length];
+            for (int i = 0; i < Math.min(fields.size(), columns.length); i++) {
+                if (columns[i] >= 0) {
+                    values[columns[i]] = fields.get(i);
+                }
+            }
+            return new RawRecord(number, values, null);
+        }
+
+        /**
+         * @return the fields of the next record, or null at the end of the file
+         */
+        private List<String> readFields(long number) throws IOException {
+            int c = read();
+            if (c < 0) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c < 0) {
+                        throw new IllegalArgumentException("Datensatz " + number + ": Anführungszeichen nicht geschlossen");
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            quoted = false;
+                            continue;
+                        }
+                    }
+                    field.append((char) c);
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == separator) {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c < 0) {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private int read() throws IOException {
+            if (position == length) {
+                length = in.read(buffer);
+                position = 0;
+                if (length <= 0) {
+                    length = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++];
+        }
+    }
+
+    /**
+     * Reads the objects of a JSON array one at a time, without building a tree of the file.
+     */
+    private static final class JsonRecordReader implements RecordReader {
+
+        private final JsonParser parser;
+
+        JsonRecordReader(JsonParser parser) throws IOException {
+            this.parser = parser;
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Die Datei muss ein JSON-Array von Tasks enthalten");
+            }
+        }
+
+        @Override
+        public RawRecord next(long number) throws IOException {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            String[] values = new String[TaskExporter.COLUMNS.length];
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return new RawRecord(number, values, "Kein JSON-Objekt");
+            }
+            String problem = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                int column = columnIndex(parser.currentName());
+                JsonToken value = parser.nextToken();
+                if (value.isStructStart()) {
+                    parser.skipChildren();
+                    if (column >= 0) {
+                        problem = "Feld \"" + TaskExporter.COLUMNS[column] + "\" enthält keinen einfachen Wert";
+                    }
+                } else if (column >= 0 && value != JsonToken.VALUE_NULL) {
+                    values[column] = parser.getText();
+                }
+            }
+            return new RawRecord(number, values, problem);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.bbzbl.task.services;
+
+import com.bbzbl.task.data.entity.TaskStatus;
+
+/**
+ * A requested status change of a single task, e.g. a card dragged to another column of the board.
+ *
+ * @param taskId          the ID of the task to move
+ * @param expectedVersion the version of the task the caller last read
+ * @param status          the new status
+ */
+public record TaskMove(Long taskId, long expectedVersion, TaskStatus status) {
+}
@@ -1,66 +1,331 @@
 package com.bbzbl.task.services;
 
 import com.bbzbl.task.data.entity.Task;
+import com.bbzbl.task.data.entity.TaskPriority;
+import com.bbzbl.task.data.entity.TaskStatus;
+import com.bbzbl.task.data.entity.User;
+import com.bbzbl.task.data.filter.TaskFilter;
+import com.bbzbl.task.data.filter.TaskSpecifications;
 import com.bbzbl.task.data.repository.TaskRepository;
+import com.bbzbl.task.data.repository.TaskSummary;
 import com.bbzbl.task.security.AuthenticatedUser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 /**
  * Service class for handling task-related operations such as create, read, update, and delete.
+ * Reads run directly in read-only transactions; mutations are committed by the
+ * {@link TaskWriteQueue}, and the calling methods wait until their mutation is committed.
+ * Reads without a full-text keyword are answered from the {@link TaskCache}, which every
+ * mutation patches or invalidates after its commit. Every mutation is also recorded in the
+ * {@link ChangeFeed}, so other nodes sharing the database learn about it. The reads the views start while they
+ * render also have asynchronous variants, which run on virtual threads and complete a future.
  */
 @Service
 public class TaskService {
 
+    /**
+     * The statuses of tasks that still have to be done.
+     */
+    private static final EnumSet<TaskStatus> UNFINISHED = EnumSet.of(TaskStatus.OPEN, TaskStatus.IN_PROGRESS);
+
     private final TaskRepository taskRepository;
     private final AuthenticatedUser authenticatedUser;
+    private final TaskWriteQueue writeQueue;
+    private final TaskCache taskCache;
+    private final TaskCounterService counterService;
+    private final TaskChangeBroadcaster changeBroadcaster;
+    private final ChangeFeed changeFeed;
+    private final int bulkChunkSize;
 
     /**
      * Constructor for injecting dependencies.
      *
      * @param taskRepository     repository for task data access
      * @param authenticatedUser  current authenticated user provider
+     * @param writeQueue         queue through which all task mutations are committed
+     * @param taskCache          per-owner cache of the task lists
+     * @param counterService     per-owner task counters
+     * @param changeBroadcaster  delivers committed changes to the open views of the owner
+     * @param changeFeed         records every change for the other nodes sharing the database
+     * @param bulkChunkSize      the maximum number of tasks a bulk command changes per statement
      */
-    public TaskService(TaskRepository taskRepository, AuthenticatedUser authenticatedUser) {
+    public TaskService(TaskRepository taskRepository, AuthenticatedUser authenticatedUser, TaskWriteQueue writeQueue,
+                       TaskCache taskCache, TaskCounterService counterService, TaskChangeBroadcaster changeBroadcaster,
+                       ChangeFeed changeFeed, @Value("${taskapp.bulk.chunk-size:300}") int bulkChunkSize) {
         this.taskRepository = taskRepository;
         this.authenticatedUser = authenticatedUser;
+        this.writeQueue = writeQueue;
+        this.taskCache = taskCache;
+        this.counterService = counterService;
+        this.changeBroadcaster = changeBroadcaster;
+        this.changeFeed = changeFeed;
+        this.bulkChunkSize = bulkChunkSize;
     }
 
     /**
      * Creates a new task for the currently authenticated user.
      *
-     * @param title       the title of the task
-     * @param description the task description
-     * @param duration    estimated time to complete
-     * @param status      current status of the task
-     * @param priority    priority level of the task
-     * @param dueDate     due date of the task
+     * @param title           the title of the task
+     * @param description     the task description
+     * @param durationMinutes estimated time to complete, in minutes
+     * @param status          current status of the task, {@link TaskStatus#OPEN} if null
+     * @param priority        priority level of the task
+     * @param dueDate         due date of the task
      * @return the saved {@link Task}
      * @throws RuntimeException if no user is authenticated
      */
-    public Task createTask(String title, String description, String duration, String status, String priority, LocalDate dueDate) {
-        return authenticatedUser.get().map(user -> {
+    public Task createTask(String title, String description, Integer durationMinutes, TaskStatus status, TaskPriority priority, LocalDate dueDate) {
+        User user = authenticatedUser.get()
+                .orElseThrow(() -> new RuntimeException("User not authenticated"));
+        Task saved = await(writeQueue.submit(() -> {
             Task task = new Task(title, description, priority, user);
-            task.setDuration(duration);
-            task.setStatus(status != null ? status : "Offen");
+            task.setDurationMinutes(durationMinutes);
+            task.setStatus(status != null ? status : TaskStatus.OPEN);
             task.setDueDate(dueDate);
-            return taskRepository.save(task);
-        }).orElseThrow(() -> new RuntimeException("User not authenticated"));
+            Task created = taskRepository.save(task);
+            changeFeed.recordTaskChange(TaskChange.Type.CREATED, user.getId(), created.getId());
+            return created;
+        }));
+        taskCache.put(saved);
+        changeBroadcaster.publish(TaskChange.created(user.getId(), TaskSummary.of(saved)));
+        return saved;
     }
 
     /**
      * Retrieves all tasks for the currently authenticated user.
      *
-     * @return list of {@link Task}s
+     * @return list of {@link TaskSummary}s
      * @throws RuntimeException if no user is authenticated
      */
-    public List<Task> getUserTasks() {
-        return authenticatedUser.get()
-                .map(user -> taskRepository.findByOwnerUsername(user.getUsername()))
-                .orElseThrow(() -> new RuntimeException("User not authenticated"));
+    @Transactional(readOnly = true)
+    public List<TaskSummary> getUserTasks() {
+        return taskCache.getAll(currentUserId(), this::loadAllTasks);
+    }
+
+    /**
+     * Retrieves a range of the currently authenticated user's tasks matching the filter.
+     * Filtering, sorting and paging are executed by the database unless the cache can answer the read.
+     * Only the summaries are read; use {@link #getTaskById} for the full task.
+     *
+     * @param filter the criteria the tasks must match; its owner is always the current user
+     * @param offset the number of matching tasks to skip
+     * @param limit  the maximum number of tasks to return
+     * @param sort   the sort order
+     * @return the summaries of the matching tasks in the requested range
+     * @throws RuntimeException if no user is authenticated
+     */
+    @Transactional(readOnly = true)
+    public List<TaskSummary> findTasks(TaskFilter filter, long offset, int limit, Sort sort) {
+        TaskFilter ownFilter = forCurrentUser(filter);
+        if (taskCache.supports(ownFilter, sort)) {
+            List<TaskSummary> tasks = taskCache.find(ownFilter, sort, this::loadAllTasks);
+            int from = (int) Math.min(offset, tasks.size());
+            return List.copyOf(tasks.subList(from, (int) Math.min(tasks.size(), from + (long) limit)));
+        }
+        return taskRepository.findSummaryRange(ownFilter, offset, limit, sort);
+    }
+
+    /**
+     * Retrieves all of the currently authenticated user's tasks matching the filter.
+     * If the filter contains a keyword and the sort is unsorted, the best matches come first.
+     *
+     * @param filter the criteria the tasks must match; its owner is always the current user
+     * @param sort   the sort order
+     * @return the summaries of the matching tasks
+     * @throws RuntimeException if no user is authenticated
+     */
+    @Transactional(readOnly = true)
+    public List<TaskSummary> findTasks(TaskFilter filter, Sort sort) {
+        return findTasks(filter, 0, Integer.MAX_VALUE, sort);
+    }
+
+    /**
+     * Retrieves a page of a board column using keyset pagination: the tasks with the status
+     * that come after the given task in the order of due date and ID. The cost only depends
+     * on the page size, not on how many tasks come before the page.
+     *
+     * @param status the status of the column
+     * @param after  the last task of the previous page, or null for the first page
+     * @param limit  the maximum number of tasks to return
+     * @return the summaries of the tasks on the page
+     * @throws RuntimeException if no user is authenticated
+     */
+    @Transactional(readOnly = true)
+    public List<TaskSummary> findColumnPage(TaskStatus status, TaskSummary after, int limit) {
+        return after == null
+                ? findColumnPage(status, null, null, limit)
+                : findColumnPage(status, after.dueDate(), after.id(), limit);
+    }
+
+    /**
+     * Retrieves a page of a board column after the given keyset cursor, e.g. one sent by the
+     * client-side board, which only knows the due date and ID of its last card.
+     *
+     * @param status       the status of the column
+     * @param afterDueDate the due date of the last task of the previous page, may be null
+     * @param afterId      the ID of the last task of the previous page, or null for the first page
+     * @param limit        the maximum number of tasks to return
+     * @return the summaries of the tasks on the page
+     * @throws RuntimeException if no user is authenticated
+     */
+    @Transactional(readOnly = true)
+    public List<TaskSummary> findColumnPage(TaskStatus status, LocalDate afterDueDate, Long afterId, int limit) {
+        Long ownerId = currentUserId();
+        if (afterId == null) {
+            return taskRepository.findColumnStart(ownerId, status, Limit.of(limit));
+        }
+        if (afterDueDate == null) {
+            return taskRepository.findColumnAfterUndated(ownerId, status, afterId, Limit.of(limit));
+        }
+        return taskRepository.findColumnAfter(ownerId, status, afterDueDate, afterId, Limit.of(limit));
+    }
+
+    /**
+     * Counts the currently authenticated user's tasks matching the filter.
+     *
+     * @param filter the criteria the tasks must match; its owner is always the current user
+     * @return the number of matching tasks
+     * @throws RuntimeException if no user is authenticated
+     */
+    @Transactional(readOnly = true)
+    public long countTasks(TaskFilter filter) {
+        TaskFilter ownFilter = forCurrentUser(filter);
+        if (taskCache.supports(ownFilter, Sort.unsorted())) {
+            return taskCache.count(ownFilter, this::loadAllTasks);
+        }
+        return taskRepository.count(TaskSpecifications.matching(ownFilter));
+    }
+
+    /**
+     * Returns the task counters of the currently authenticated user, without reading any task.
+     *
+     * @return the counts by status and priority and the total duration
+     * @throws RuntimeException if no user is authenticated
+     */
+    @Transactional(readOnly = true)
+    public TaskCounts getTaskCounts() {
+        return counterService.getCounts(currentUserId());
+    }
+
+    /**
+     * Computes the home page summary of the currently authenticated user's tasks.
+     * The totals come from the task counters, the lists are limited range queries on the
+     * owner/status/due date index,
+     * so the cost does not grow with the number of tasks.
+     *
+     * @param today        the current date
+     * @param upcomingDays the number of days after today that count as upcoming
+     * @param limit        the maximum number of tasks in the overdue and upcoming lists, at least 1
+     * @return the dashboard
+     * @throws RuntimeException if no user is authenticated
+     */
+    @Transactional(readOnly = true)
+    public TaskDashboard getDashboard(LocalDate today, int upcomingDays, int limit) {
+        Long ownerId = currentUserId();
+        LocalDate lastUpcoming = today.plusDays(upcomingDays);
+
+        long overdueCount = taskRepository.countDueBefore(ownerId, UNFINISHED, today);
+        List<TaskSummary> overdue = overdueCount == 0 ? List.of()
+                : taskRepository.findDueBefore(ownerId, UNFINISHED, today, Limit.of(limit));
+        long upcomingCount = taskRepository.countDueBetween(ownerId, UNFINISHED, today, lastUpcoming);
+        List<TaskSummary> upcoming = upcomingCount == 0 ? List.of()
+                : taskRepository.findDueBetween(ownerId, UNFINISHED, today, lastUpcoming, Limit.of(limit));
+
+        TaskSummary nextDeadline;
+        if (!overdue.isEmpty()) {
+            nextDeadline = overdue.get(0);
+        } else if (!upcoming.isEmpty()) {
+            nextDeadline = upcoming.get(0);
+        } else {
+            nextDeadline = taskRepository.findDueFrom(ownerId, UNFINISHED, lastUpcoming.plusDays(1), Limit.of(1))
+                    .stream().findFirst().orElse(null);
+        }
+
+        return new TaskDashboard(counterService.getCounts(ownerId), overdueCount, overdue, upcomingCount, upcoming, nextDeadline);
+    }
+
+    /**
+     * Asynchronous variant of {@link #findTasks(TaskFilter, long, int, Sort)}, running on a virtual thread of the view executor.
+     *
+     * @param filter the criteria the tasks must match; its owner is always the current user
+     * @param offset the index of the first task to return
+     * @param limit  the maximum number of tasks to return
+     * @param sort   the sort order
+     * @return the summaries of the matching tasks, once read
+     */
+    @Async("viewExecutor")
+    @Transactional(readOnly = true)
+    public CompletableFuture<List<TaskSummary>> findTasksAsync(TaskFilter filter, long offset, int limit, Sort sort) {
+        return CompletableFuture.completedFuture(findTasks(filter, offset, limit, sort));
+    }
+
+    /**
+     * Asynchronous variant of {@link #findColumnPage}, running on a virtual thread of the view executor.
+     *
+     * @param status the status of the column
+     * @param after  the last task of the previous page, or null for the first page
+     * @param limit  the maximum number of tasks to return
+     * @return the summaries of the tasks on the page, once read
+     */
+    @Async("viewExecutor")
+    @Transactional(readOnly = true)
+    public CompletableFuture<List<TaskSummary>> findColumnPageAsync(TaskStatus status, TaskSummary after, int limit) {
+        return CompletableFuture.completedFuture(findColumnPage(status, after, limit));
+    }
+
+    /**
+     * Asynchronous variant of {@link #countTasks}, running on a virtual thread of the view executor.
+     *
+     * @param filter the criteria the tasks must match; its owner is always the current user
+     * @return the number of matching tasks, once counted
+     */
+    @Async("viewExecutor")
+    @Transactional(readOnly = true)
+    public CompletableFuture<Long> countTasksAsync(TaskFilter filter) {
+        return CompletableFuture.completedFuture(countTasks(filter));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getTaskCounts()}, running on a virtual thread of the view executor.
+     *
+     * @return the counts by status and priority and the total duration, once read
+     */
+    @Async("viewExecutor")
+    @Transactional(readOnly = true)
+    public CompletableFuture<TaskCounts> getTaskCountsAsync() {
+        return CompletableFuture.completedFuture(getTaskCounts());
+    }
+
+    /**
+     * Asynchronous variant of {@link #getDashboard}, running on a virtual thread of the view executor.
+     *
+     * @param today        the current date
+     * @param upcomingDays the number of days after today that count as upcoming
+     * @param limit        the maximum number of tasks in the overdue and upcoming lists, at least 1
+     * @return the dashboard, once computed
+     */
+    @Async("viewExecutor")
+    @Transactional(readOnly = true)
+    public CompletableFuture<TaskDashboard> getDashboardAsync(LocalDate today, int upcomingDays, int limit) {
+        return CompletableFuture.completedFuture(getDashboard(today, upcomingDays, limit));
     }
 
     /**
@@ -69,15 +334,74 @@ public class TaskService {
      * @param id the ID of the task to delete
      */
     public void deleteTask(Long id) {
-        taskRepository.deleteById(id);
+        Long ownerId = currentUserId();
+        await(writeQueue.submit(() -> {
+            taskRepository.deleteById(id);
+            changeFeed.recordTaskChange(TaskChange.Type.DELETED, ownerId, id);
+            return null;
+        }));
+        taskCache.remove(ownerId, id);
+        changeBroadcaster.publish(TaskChange.deleted(ownerId, id));
+    }
+
+    /**
+     * Deletes several tasks of the currently authenticated user at once.
+     *
+     * @param taskIds the IDs of the tasks; tasks of other users are ignored
+     * @return the number of deleted tasks
+     * @throws RuntimeException if no user is authenticated
+     */
+    public int deleteTasks(Collection<Long> taskIds) {
+        return applyToTasks(taskIds, TaskChange.Type.DELETED, taskRepository::deleteAllOfOwner);
+    }
+
+    /**
+     * Sets the status of several tasks of the currently authenticated user at once.
+     *
+     * @param taskIds the IDs of the tasks; tasks of other users are ignored
+     * @param status  the new status
+     * @return the number of changed tasks
+     * @throws RuntimeException if no user is authenticated
+     */
+    public int changeStatus(Collection<Long> taskIds, TaskStatus status) {
+        return applyToTasks(taskIds, TaskChange.Type.UPDATED,
+                (ids, ownerId) -> taskRepository.updateStatusOfAll(ids, ownerId, status));
+    }
+
+    /**
+     * Sets the priority of several tasks of the currently authenticated user at once.
+     *
+     * @param taskIds  the IDs of the tasks; tasks of other users are ignored
+     * @param priority the new priority
+     * @return the number of changed tasks
+     * @throws RuntimeException if no user is authenticated
+     */
+    public int changePriority(Collection<Long> taskIds, TaskPriority priority) {
+        return applyToTasks(taskIds, TaskChange.Type.UPDATED,
+                (ids, ownerId) -> taskRepository.updatePriorityOfAll(ids, ownerId, priority));
+    }
+
+    /**
+     * Moves the due dates of several tasks of the currently authenticated user at once.
+     * Tasks without a due date keep having none.
+     *
+     * @param taskIds the IDs of the tasks; tasks of other users are ignored
+     * @param days    the number of days to add, negative to move the dates earlier
+     * @return the number of changed tasks
+     * @throws RuntimeException if no user is authenticated
+     */
+    public int shiftDueDates(Collection<Long> taskIds, int days) {
+        return applyToTasks(taskIds, TaskChange.Type.UPDATED,
+                (ids, ownerId) -> taskRepository.shiftDueDates(ids, ownerId, days));
     }
 
     /**
-     * Retrieves a task by its ID.
+     * Retrieves the full task by its ID, e.g. to edit it.
      *
      * @param id the ID of the task
      * @return an Optional containing the task if found
      */
+    @Transactional(readOnly = true)
     public Optional<Task> getTaskById(Long id) {
         return taskRepository.findById(id);
     }
@@ -85,26 +409,230 @@ public class TaskService {
     /**
      * Updates a task with new values if provided.
      *
-     * @param taskId      the ID of the task to update
-     * @param title       new title (nullable)
-     * @param description new description (nullable)
-     * @param duration    new duration (nullable)
-     * @param status      new status (nullable)
-     * @param priority    new priority (nullable)
-     * @param dueDate     new due date (nullable)
+     * @param taskId          the ID of the task to update
+     * @param expectedVersion the version of the task the new values are based on
+     * @param title           new title (nullable)
+     * @param description     new description (nullable)
+     * @param durationMinutes new duration in minutes (nullable)
+     * @param status          new status (nullable)
+     * @param priority        new priority (nullable)
+     * @param dueDate         new due date (nullable)
      * @throws RuntimeException if the task is not found
+     * @throws OptimisticLockingFailureException if the task was changed since it was read
+     */
+    public void updateTask(Long taskId, long expectedVersion, String title, String description, Integer durationMinutes, TaskStatus status, TaskPriority priority, LocalDate dueDate) {
+        Task saved = await(writeQueue.submit(() -> {
+            Task task = taskRepository.findById(taskId)
+                    .orElseThrow(() -> new RuntimeException("Task not found"));
+            if (task.getVersion() != expectedVersion) {
+                throw new OptimisticLockingFailureException("Task " + taskId + " was changed by someone else");
+            }
+
+            if (title != null) task.setTitle(title);
+            if (description != null) task.setDescription(description);
+            if (durationMinutes != null) task.setDurationMinutes(durationMinutes);
+            if (status != null) task.setStatus(status);
+            if (priority != null) task.setPriority(priority);
+            if (dueDate != null) task.setDueDate(dueDate);
+
+            Task updated = taskRepository.save(task);
+            changeFeed.recordTaskChange(TaskChange.Type.UPDATED, updated.getOwner().getId(), taskId);
+            return updated;
+        }));
+        taskCache.put(saved);
+        changeBroadcaster.publish(TaskChange.updated(saved.getOwner().getId(), TaskSummary.of(saved)));
+    }
+
+    /**
+     * Moves a task of the currently authenticated user to another status.
+     * Runs a single {@code UPDATE} without reading the task first; only the committed summary
+     * is read back by ID, for the other sessions of the owner.
+     *
+     * @param taskId          the ID of the task to move
+     * @param expectedVersion the version of the task the caller last read
+     * @param status          the new status
+     * @return the new version of the task
+     * @throws RuntimeException if no user is authenticated
+     * @throws OptimisticLockingFailureException if the task was changed or deleted since it was read
      */
-    public void updateTask(Long taskId, String title, String description, String duration, String status, String priority, LocalDate dueDate) {
-        Task task = taskRepository.findById(taskId)
-                .orElseThrow(() -> new RuntimeException("Task not found"));
+    public long moveTask(Long taskId, long expectedVersion, TaskStatus status) {
+        Long ownerId = currentUserId();
+        TaskSummary moved = await(writeQueue.submit(() -> {
+            checkUpdated(taskRepository.updateStatus(taskId, ownerId, expectedVersion, status), taskId);
+            changeFeed.recordTaskChange(TaskChange.Type.UPDATED, ownerId, taskId);
+            return taskRepository.findSummaryById(taskId).orElseThrow();
+        }));
+        taskCache.put(ownerId, moved);
+        changeBroadcaster.publish(TaskChange.updated(ownerId, moved));
+        return moved.version();
+    }
 
-        if (title != null) task.setTitle(title);
-        if (description != null) task.setDescription(description);
-        if (duration != null) task.setDuration(duration);
-        if (status != null) task.setStatus(status);
-        if (priority != null) task.setPriority(priority);
-        if (dueDate != null) task.setDueDate(dueDate);
+    /**
+     * Moves several tasks of the currently authenticated user at once, e.g. a batch of cards
+     * dragged on the board. All moves run as one mutation of the write queue, so they are
+     * committed in a single transaction. Unlike {@link #moveTask}, a move of a task that was
+     * changed or deleted since it was read is skipped instead of failing the other moves.
+     *
+     * @param moves the moves, applied in order
+     * @return the committed summaries of the moved tasks; the tasks of skipped moves are missing
+     * @throws RuntimeException if no user is authenticated
+     */
+    public List<TaskSummary> moveTasks(List<TaskMove> moves) {
+        Long ownerId = currentUserId();
+        if (moves.isEmpty()) {
+            return List.of();
+        }
+        List<TaskSummary> moved = await(writeQueue.submit(() -> {
+            List<TaskSummary> committed = new ArrayList<>();
+            for (TaskMove move : moves) {
+                if (taskRepository.updateStatus(move.taskId(), ownerId, move.expectedVersion(), move.status()) > 0) {
+                    changeFeed.recordTaskChange(TaskChange.Type.UPDATED, ownerId, move.taskId());
+                    taskRepository.findSummaryById(move.taskId()).ifPresent(committed::add);
+                }
+            }
+            return committed;
+        }));
+        for (TaskSummary task : moved) {
+            taskCache.put(ownerId, task);
+            changeBroadcaster.publish(TaskChange.updated(ownerId, task));
+        }
+        return moved;
+    }
 
-        taskRepository.save(task);
+    /**
+     * Changes the priority of a task of the currently authenticated user.
+     * Runs a single {@code UPDATE} without reading the task first; only the committed summary
+     * is read back by ID, for the other sessions of the owner.
+     *
+     * @param taskId          the ID of the task to change
+     * @param expectedVersion the version of the task the caller last read
+     * @param priority        the new priority
+     * @return the new version of the task
+     * @throws RuntimeException if no user is authenticated
+     * @throws OptimisticLockingFailureException if the task was changed or deleted since it was read
+     */
+    public long changePriority(Long taskId, long expectedVersion, TaskPriority priority) {
+        Long ownerId = currentUserId();
+        TaskSummary changed = await(writeQueue.submit(() -> {
+            checkUpdated(taskRepository.updatePriority(taskId, ownerId, expectedVersion, priority), taskId);
+            changeFeed.recordTaskChange(TaskChange.Type.UPDATED, ownerId, taskId);
+            return taskRepository.findSummaryById(taskId).orElseThrow();
+        }));
+        taskCache.put(ownerId, changed);
+        changeBroadcaster.publish(TaskChange.updated(ownerId, changed));
+        return changed.version();
+    }
+
+    /**
+     * Subscribes to the committed changes of the currently authenticated user's tasks,
+     * including those made in other sessions.
+     *
+     * @param listener called with every change; runs on a thread of the view executor (see {@link TaskChangeBroadcaster})
+     * @return removes the listener again
+     * @throws RuntimeException if no user is authenticated
+     */
+    public Runnable subscribeToChanges(Consumer<TaskChange> listener) {
+        return changeBroadcaster.subscribe(currentUserId(), listener);
+    }
+
+    /**
+     * Restricts the given filter to the tasks of the currently authenticated user.
+     *
+     * @param filter the filter requested by the caller
+     * @return the filter, owned by the current user
+     * @throws RuntimeException if no user is authenticated
+     */
+    private TaskFilter forCurrentUser(TaskFilter filter) {
+        return filter.withOwnerId(currentUserId());
+    }
+
+    /**
+     * Loads the summaries of all tasks of an owner from the database, for the cache.
+     *
+     * @param ownerId the ID of the owner
+     * @return the owner's task summaries
+     */
+    private List<TaskSummary> loadAllTasks(Long ownerId) {
+        return taskRepository.findSummaryRange(TaskFilter.all().withOwnerId(ownerId), 0, Integer.MAX_VALUE, Sort.by("id"));
+    }
+
+    /**
+     * Returns the ID of the currently authenticated user.
+     *
+     * @return the user ID
+     * @throws RuntimeException if no user is authenticated
+     */
+    private Long currentUserId() {
+        return authenticatedUser.get()
+                .map(User::getId)
+                .orElseThrow(() -> new RuntimeException("User not authenticated"));
+    }
+
+    /**
+     * Runs a bulk command as one mutation of the write queue, so all its statements are
+     * committed in a single transaction. The tasks are processed in chunks of
+     * {@code bulkChunkSize} IDs, one set-based statement per chunk, which keeps every
+     * statement below the SQLite limit of bound parameters. The open views of the owner are
+     * told to reload once, instead of receiving a change per task.
+     *
+     * @param taskIds   the IDs of the tasks
+     * @param type      how the tasks are recorded in the change feed
+     * @param statement applies the command to a chunk of task IDs of an owner and returns the number of changed tasks
+     * @return the number of changed tasks
+     */
+    private int applyToTasks(Collection<Long> taskIds, TaskChange.Type type,
+                             BiFunction<List<Long>, Long, Integer> statement) {
+        Long ownerId = currentUserId();
+        List<Long> ids = List.copyOf(new LinkedHashSet<>(taskIds));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int changed = await(writeQueue.submit(() -> {
+            int total = 0;
+            for (int from = 0; from < ids.size(); from += bulkChunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(from + bulkChunkSize, ids.size()));
+                // Recorded first, so the deleted tasks can still be found
+                changeFeed.recordTaskChanges(type, ownerId, chunk);
+                total += statement.apply(chunk, ownerId);
+            }
+            return total;
+        }));
+        if (changed > 0) {
+            taskCache.invalidate(ownerId);
+            changeBroadcaster.publish(TaskChange.bulk(ownerId));
+        }
+        return changed;
+    }
+
+    /**
+     * Checks that a targeted update changed the task.
+     *
+     * @param updatedRows the number of rows reported by the {@code UPDATE}
+     * @param taskId      the ID of the task
+     * @throws OptimisticLockingFailureException if no row was updated
+     */
+    private static void checkUpdated(int updatedRows, Long taskId) {
+        if (updatedRows == 0) {
+            throw new OptimisticLockingFailureException("Task " + taskId + " was changed or deleted by someone else");
+        }
+    }
+
+    /**
+     * Waits until a queued mutation is committed and returns its result.
+     *
+     * @param future the future returned by the write queue
+     * @param <T>    the result type of the mutation
+     * @return the result of the mutation
+     * @throws RuntimeException the exception thrown by the mutation, if it failed
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
     }
 }
@@ -0,0 +1,294 @@
+package com.bbzbl.task.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Serializes all task mutations through a single writer thread.
+ * <p>
+ * SQLite only allows one writer at a time, so instead of letting every request thread
+ * compete for the write lock in its own transaction, mutations are put on a bounded queue.
+ * The writer thread takes every mutation that arrives within a short window and runs them
+ * together in one transaction (group commit), then completes the future of each caller.
+ * If a group fails, its mutations are retried one by one, so a single failing mutation
+ * only fails its own caller. This includes errors such as a {@link StackOverflowError}
+ * thrown by a mutation: the writer thread must survive them, since a dead writer would
+ * leave every future caller waiting forever.
+ */
+@Component
+public class TaskWriteQueue implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskWriteQueue.class);
+
+    /**
+     * Batch statistics of the write queue.
+     *
+     * @param batches      the number of committed transactions
+     * @param mutations    the number of mutations run in these transactions
+     * @param largestBatch the largest number of mutations committed together
+     * @param rejected     the number of mutations rejected because the queue was full
+     * @param queued       the number of mutations currently waiting
+     */
+    public record Stats(long batches, long mutations, int largestBatch, long rejected, int queued) {
+
+        /**
+         * @return the average number of mutations per transaction
+         */
+        public double averageBatchSize() {
+            return batches == 0 ? 0 : (double) mutations / batches;
+        }
+    }
+
+    /**
+     * A mutation waiting for the writer thread, together with the future of its caller.
+     */
+    private record PendingWrite<T>(Supplier<T> mutation, CompletableFuture<T> future) {
+
+        /**
+         * Completes the caller's future with the result of the committed mutation.
+         *
+         * @param result the value returned by {@link #mutation()}
+         */
+        @SuppressWarnings("unchecked")
+        void complete(Object result) {
+            future.complete((T) result);
+        }
+    }
+
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingWrite<?>> queue;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final long offerTimeoutMillis;
+    private final long shutdownTimeoutMillis;
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong mutations = new AtomicLong();
+    private final AtomicInteger largestBatch = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private volatile boolean accepting;
+    private Thread writerThread;
+
+    /**
+     * Constructor for injecting dependencies and the queue settings.
+     *
+     * @param transactionManager    manager for the writing transactions
+     * @param capacity              the maximum number of waiting mutations
+     * @param maxBatchSize          the maximum number of mutations committed together
+     * @param maxDelayMillis        how long the writer waits for more mutations before committing
+     * @param offerTimeoutMillis    how long a caller waits for space when the queue is full
+     * @param shutdownTimeoutMillis how long shutdown waits for the queue to drain
+     */
+    public TaskWriteQueue(PlatformTransactionManager transactionManager,
+                          @Value("${taskapp.write-queue.capacity:1000}") int capacity,
+                          @Value("${taskapp.write-queue.max-batch-size:64}") int maxBatchSize,
+                          @Value("${taskapp.write-queue.max-delay-ms:2}") long maxDelayMillis,
+                          @Value("${taskapp.write-queue.offer-timeout-ms:1000}") long offerTimeoutMillis,
+                          @Value("${taskapp.write-queue.shutdown-timeout-ms:10000}") long shutdownTimeoutMillis) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+    }
+
+    /**
+     * Queues a mutation for the writer thread.
+     * The mutation runs inside a writing transaction, possibly together with other mutations,
+     * and must therefore not depend on the caller's thread (e.g. the security context).
+     *
+     * @param mutation the database work to run
+     * @param <T>      the result type of the mutation
+     * @return a future completed with the result once the transaction is committed
+     * @throws IllegalStateException if the queue is shut down or stays full for the offer timeout
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> mutation) {
+        if (!accepting) {
+            throw new IllegalStateException("Write queue is shut down");
+        }
+
+        PendingWrite<T> pendingWrite = new PendingWrite<>(mutation, new CompletableFuture<>());
+        try {
+            if (!queue.offer(pendingWrite, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejected.incrementAndGet();
+                throw new IllegalStateException("Write queue is full, please try again later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the write queue", e);
+        }
+        return pendingWrite.future();
+    }
+
+    /**
+     * Returns the current batch statistics.
+     *
+     * @return a snapshot of the statistics
+     */
+    public Stats getStats() {
+        return new Stats(batches.get(), mutations.get(), largestBatch.get(), rejected.get(), queue.size());
+    }
+
+    @Override
+    public synchronized void start() {
+        accepting = true;
+        writerThread = new Thread(this::runWriter, "taskapp-writer");
+        writerThread.start();
+    }
+
+    /**
+     * Stops accepting new mutations and waits until the queued ones are committed.
+     */
+    @Override
+    public synchronized void stop() {
+        accepting = false;
+        try {
+            writerThread.join(shutdownTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            logger.warn("Write queue did not drain within {} ms, {} mutations left.", shutdownTimeoutMillis, queue.size());
+            writerThread.interrupt();
+        }
+        failRemaining();
+
+        Stats stats = getStats();
+        logger.info("Write queue stopped: {} mutations in {} transactions (average {}, largest {}), {} rejected.",
+                stats.mutations(), stats.batches(), String.format("%.1f", stats.averageBatchSize()),
+                stats.largestBatch(), stats.rejected());
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return writerThread != null && writerThread.isAlive();
+    }
+
+    /**
+     * The loop of the writer thread. Runs until the queue is shut down and empty.
+     * Should the thread ever end while the queue still accepts mutations, the queue stops
+     * accepting them and fails the waiting ones, so callers fail fast instead of waiting forever.
+     */
+    private void runWriter() {
+        List<PendingWrite<?>> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (accepting || !queue.isEmpty()) {
+                try {
+                    PendingWrite<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    collectBatch(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                commit(batch);
+                batch.clear();
+            }
+        } finally {
+            if (accepting) {
+                logger.error("Writer thread stopped unexpectedly, no further mutations are accepted.");
+                accepting = false;
+                for (PendingWrite<?> pendingWrite : batch) {
+                    pendingWrite.future().completeExceptionally(new IllegalStateException("Write queue is shut down"));
+                }
+                failRemaining();
+            }
+        }
+    }
+
+    /**
+     * Adds further queued mutations to the batch until it is full or the latency window is over.
+     *
+     * @param batch the batch, already containing its first mutation
+     * @throws InterruptedException if the writer thread is interrupted while waiting
+     */
+    private void collectBatch(List<PendingWrite<?>> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                return;
+            }
+            PendingWrite<?> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Runs the batch in one transaction and completes the callers' futures after the commit.
+     * If the transaction fails, every mutation is retried in its own transaction.
+     * Errors are handled like exceptions, so that they fail only their own caller.
+     *
+     * @param batch the mutations to commit together
+     */
+    private void commit(List<PendingWrite<?>> batch) {
+        try {
+            List<Object> results = transactionTemplate.execute(status -> {
+                List<Object> values = new ArrayList<>(batch.size());
+                for (PendingWrite<?> pendingWrite : batch) {
+                    values.add(pendingWrite.mutation().get());
+                }
+                return values;
+            });
+            recordBatch(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).complete(results.get(i));
+            }
+        } catch (Throwable e) {
+            if (batch.size() == 1) {
+                batch.get(0).future().completeExceptionally(e);
+                return;
+            }
+            logger.debug("Batch of {} mutations failed, retrying them one by one.", batch.size(), e);
+            for (PendingWrite<?> pendingWrite : batch) {
+                commit(List.of(pendingWrite));
+            }
+        }
+    }
+
+    /**
+     * Updates the batch statistics after a commit.
+     *
+     * @param size the number of mutations in the committed transaction
+     */
+    private void recordBatch(int size) {
+        batches.incrementAndGet();
+        mutations.addAndGet(size);
+        largestBatch.accumulateAndGet(size, Math::max);
+        logger.debug("Committed {} mutations in one transaction.", size);
+    }
+
+    /**
+     * Fails the mutations that could not be committed before shutdown.
+     */
+    private void failRemaining() {
+        PendingWrite<?> pendingWrite;
+        while ((pendingWrite = queue.poll()) != null) {
+            pendingWrite.future().completeExceptionally(new IllegalStateException("Write queue is shut down"));
+        }
+    }
+}
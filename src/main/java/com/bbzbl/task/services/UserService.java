@@ -2,12 +2,16 @@ package com.bbzbl.task.services;
 
 import com.bbzbl.task.data.entity.User;
 import com.bbzbl.task.data.repository.UserRepository;
+import com.bbzbl.task.security.AuthenticatedUser;
+import com.bbzbl.task.security.UserDetailsCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Optional;
 
@@ -21,16 +25,26 @@ public class UserService {
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
     private final PasswordEncoder passwordEncoder;
     private final UserRepository repository;
+    private final AuthenticatedUser authenticatedUser;
+    private final UserDetailsCache userDetailsCache;
+    private final ChangeFeed changeFeed;
 
     /**
      * Constructor for injecting dependencies.
      *
-     * @param passwordEncoder the password encoder for hashing passwords
-     * @param repository      the repository for user data access
+     * @param passwordEncoder   the password encoder for hashing passwords
+     * @param repository        the repository for user data access
+     * @param authenticatedUser the provider of the current user, whose cache is refreshed on changes
+     * @param userDetailsCache  the login cache, from which changed users are removed
+     * @param changeFeed        records every change for the other nodes sharing the database
      */
-    public UserService(PasswordEncoder passwordEncoder, UserRepository repository) {
+    public UserService(PasswordEncoder passwordEncoder, UserRepository repository, AuthenticatedUser authenticatedUser,
+                       UserDetailsCache userDetailsCache, ChangeFeed changeFeed) {
         this.passwordEncoder = passwordEncoder;
         this.repository = repository;
+        this.authenticatedUser = authenticatedUser;
+        this.userDetailsCache = userDetailsCache;
+        this.changeFeed = changeFeed;
     }
 
     /**
@@ -39,6 +53,7 @@ public class UserService {
      * @param id the user's ID
      * @return an Optional containing the user, if found
      */
+    @Transactional(readOnly = true)
     public Optional<User> get(Long id) {
         return repository.findById(id);
     }
@@ -67,6 +82,7 @@ public class UserService {
 
         User user = new User(username, passwordEncoder.encode(password), firstName, lastName, email);
         repository.save(user);
+        changeFeed.recordUserChange(TaskChange.Type.CREATED, user.getId(), username);
         logger.info("User '{}' successfully registered.", username);
         return true;
     }
@@ -77,6 +93,7 @@ public class UserService {
      * @param username the username to search
      * @return an Optional containing the user if found
      */
+    @Transactional(readOnly = true)
     public Optional<User> getUserByUsername(String username) {
         return repository.findByUsername(username);
     }
@@ -87,9 +104,20 @@ public class UserService {
      * @param user the user to update
      * @return an Optional with the updated user or empty if user not found
      */
+    @Transactional
     public Optional<User> updateUser(User user) {
-        if (repository.existsById(user.getId())) {
-            repository.save(user);
+        Optional<String> storedUsername = repository.findById(user.getId()).map(User::getUsername);
+        if (storedUsername.isPresent()) {
+            User saved = repository.save(user);
+            changeFeed.recordUserChange(TaskChange.Type.UPDATED, user.getId(), storedUsername.get());
+            if (!storedUsername.get().equals(user.getUsername())) {
+                changeFeed.recordUserChange(TaskChange.Type.UPDATED, user.getId(), user.getUsername());
+            }
+            afterCommit(() -> {
+                authenticatedUser.refresh(saved);
+                userDetailsCache.removeUserFromCache(storedUsername.get());
+                userDetailsCache.removeUserFromCache(user.getUsername());
+            });
             logger.info("User '{}' successfully updated.", user.getUsername());
             return Optional.of(user);
         } else {
@@ -111,6 +139,11 @@ public class UserService {
 
         try {
             repository.deleteUserById(user.getId());
+            changeFeed.recordUserChange(TaskChange.Type.DELETED, user.getId(), user.getUsername());
+            afterCommit(() -> {
+                authenticatedUser.invalidate();
+                userDetailsCache.removeUserFromCache(user.getUsername());
+            });
         } catch (EmptyResultDataAccessException e) {
             throw new IllegalStateException("User could not be deleted because they do not exist.", e);
         }
@@ -143,6 +176,31 @@ public class UserService {
      */
     @Transactional
     public void saveUser(User user) {
-        repository.save(user);
+        User saved = repository.save(user);
+        changeFeed.recordUserChange(TaskChange.Type.UPDATED, user.getId(), user.getUsername());
+        afterCommit(() -> {
+            authenticatedUser.refresh(saved);
+            userDetailsCache.removeUserFromCache(user.getUsername());
+        });
+    }
+
+    /**
+     * Runs the action once the current transaction has committed, e.g. to refresh a changed user
+     * in the caches. Done earlier, a login before the commit would cache the old row again,
+     * and after a rollback the caches would hold changes that were never saved.
+     *
+     * @param action the action to run after the commit
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 }
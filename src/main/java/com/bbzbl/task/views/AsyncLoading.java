@@ -0,0 +1,56 @@
+package com.bbzbl.task.views;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.notification.Notification;
+import com.vaadin.flow.shared.Registration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Fills views with data that is read in the background.
+ * <p>
+ * Views render a skeleton right away and start their reads through the asynchronous variants
+ * of the services, so navigation waits neither for the database nor holds a servlet thread or
+ * the session lock meanwhile. The data is applied through {@link UI#access} and reaches the
+ * browser by server push. Reads still running when the view is detached are cancelled, and
+ * their results are dropped.
+ */
+public final class AsyncLoading {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncLoading.class);
+
+    private AsyncLoading() {
+    }
+
+    /**
+     * Shows the result of a read once it completes. Must be called from the UI thread,
+     * e.g. from the constructor of the view.
+     *
+     * @param view   the view showing the data
+     * @param future the running read
+     * @param apply  shows the data; runs with the session lock held
+     * @param <T>    the type of the data
+     */
+    public static <T> void load(Component view, CompletableFuture<T> future, Consumer<T> apply) {
+        UI ui = UI.getCurrent();
+        Registration detachRegistration = view.addDetachListener(event -> future.cancel(false));
+        future.whenComplete((result, failure) -> {
+            if (future.isCancelled()) {
+                return;
+            }
+            if (failure != null) {
+                logger.warn("Loading the data of {} failed.", view.getClass().getSimpleName(), failure);
+                ui.access(() -> Notification.show("Daten konnten nicht geladen werden!", 3000, Notification.Position.TOP_END));
+                return;
+            }
+            ui.access(() -> {
+                detachRegistration.remove();
+                apply.accept(result);
+            });
+        });
+    }
+}
@@ -0,0 +1,37 @@
+package com.bbzbl.task.views;
+
+import com.vaadin.flow.component.UI;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Applies updates to a UI from threads that do not belong to the user, e.g. the threads
+ * delivering the task changes or the writer of an import.
+ * <p>
+ * Such threads have no security context, but the services resolve the owner of the tasks
+ * through it, both in the command and in the push that follows it, when the grid or the board
+ * reads the rows it shows. The security context of the user is therefore captured on the UI
+ * thread and set around {@link UI#access}, which runs the command and the push on the calling
+ * thread if the session is not locked. Otherwise the thread holding the lock runs them, which
+ * is a request of the same user.
+ */
+public final class UiAccess {
+
+    private UiAccess() {
+    }
+
+    /**
+     * Captures the security context of the current user for later updates of the UI.
+     * Must be called from the UI thread, e.g. when the view is attached.
+     *
+     * @param ui the UI to update
+     * @return runs commands through {@link UI#access} with the captured security context
+     */
+    public static Executor forCurrentUser(UI ui) {
+        SecurityContext context = SecurityContextHolder.getContext();
+        return command -> new DelegatingSecurityContextRunnable(() -> ui.access(command::run), context).run();
+    }
+}
@@ -1,15 +1,18 @@
 package com.bbzbl.task.views.home;
 
-import com.bbzbl.task.data.entity.Task;
 import com.bbzbl.task.data.entity.User;
+import com.bbzbl.task.data.repository.TaskSummary;
 import com.bbzbl.task.security.AuthenticatedUser;
+import com.bbzbl.task.services.TaskDashboard;
 import com.bbzbl.task.services.TaskService;
+import com.bbzbl.task.views.AsyncLoading;
 import com.vaadin.flow.component.details.Details;
 import com.vaadin.flow.component.html.Anchor;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.orderedlayout.FlexComponent;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.progressbar.ProgressBar;
 import com.vaadin.flow.router.Menu;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
@@ -18,7 +21,6 @@ import org.vaadin.lineawesome.LineAwesomeIconUrl;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
 
@@ -28,16 +30,27 @@ import java.util.Locale;
 @Menu(order = 0, icon = LineAwesomeIconUrl.HOME_SOLID)
 public class HomeView extends VerticalLayout {
 
+    /**
+     * The number of days after today whose tasks are listed as upcoming.
+     */
+    private static final int UPCOMING_DAYS = 3;
+
+    /**
+     * The maximum number of tasks listed per section.
+     */
+    private static final int LIST_LIMIT = 10;
+
     public HomeView(AuthenticatedUser authenticatedUser, TaskService taskService) {
         String userName = authenticatedUser.get().map(User::getFullName).orElse("Gast");
-        List<Task> tasks = taskService.getUserTasks();
-        LocalDate today = LocalDate.now();
 
         setLayoutStyles();
         Div welcomeBanner = createWelcomeBanner(userName);
-        Div infoCard = createInfoCard(tasks, today);
+        Div placeholder = createPlaceholderCard();
+
+        add(welcomeBanner, placeholder);
 
-        add(welcomeBanner, infoCard);
+        AsyncLoading.load(this, taskService.getDashboardAsync(LocalDate.now(), UPCOMING_DAYS, LIST_LIMIT),
+                dashboard -> replace(placeholder, createInfoCard(dashboard)));
     }
 
     private void setLayoutStyles() {
@@ -62,23 +75,29 @@ public class HomeView extends VerticalLayout {
         return banner;
     }
 
-    private Div createInfoCard(List<Task> tasks, LocalDate today) {
-        Div card = new Div();
-        card.getStyle()
-                .set("background", "#ffffff")
-                .set("padding", "25px")
-                .set("border-radius", "12px")
-                .set("box-shadow", "0px 4px 12px rgba(0, 0, 0, 0.1)")
-                .set("max-width", "90%")
-                .set("width", "100%")
-                .set("text-align", "center");
+    /**
+     * The info card shown until the dashboard is loaded.
+     */
+    private Div createPlaceholderCard() {
+        Div card = createCard();
 
-        card.add(createAppDescription());
+        Span loading = new Span("Übersicht wird geladen...");
+        loading.getStyle()
+                .set("color", "#666")
+                .set("display", "block")
+                .set("margin-bottom", "10px");
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setIndeterminate(true);
 
-        List<Task> upcoming = getUpcomingTasks(tasks, today);
-        List<Task> overdue = getOverdueTasks(tasks, today);
+        card.add(loading, progressBar);
+        return card;
+    }
+
+    private Div createInfoCard(TaskDashboard dashboard) {
+        Div card = createCard();
 
-        Span stats = new Span("Gesamt: " + tasks.size() + " | Bevorstehend: " + upcoming.size() + " | Überfällig: " + overdue.size());
+        Span stats = new Span("Gesamt: " + dashboard.counts().total() + " | Bevorstehend: " + dashboard.upcomingCount()
+                + " | Überfällig: " + dashboard.overdueCount());
         stats.getStyle()
                 .set("font-size", "1em")
                 .set("color", "#666")
@@ -86,26 +105,25 @@ public class HomeView extends VerticalLayout {
                 .set("display", "block");
         card.add(stats);
 
-        tasks.stream()
-                .filter(t -> t.getDueDate() != null && !"Erledigt".equalsIgnoreCase(t.getStatus()))
-                .min(Comparator.comparing(Task::getDueDate))
-                .ifPresent(next -> {
-                    DateTimeFormatter df = DateTimeFormatter.ofPattern("dd.MM.yyyy", Locale.GERMAN);
-                    Span nextDeadline = new Span("Nächste Deadline: " + next.getTitle() + " am " + next.getDueDate().format(df));
-                    nextDeadline.getStyle()
-                            .set("font-weight", "bold")
-                            .set("color", "#007bff")
-                            .set("margin-bottom", "15px")
-                            .set("display", "block");
-                    card.add(nextDeadline);
-                });
-
-        if (!upcoming.isEmpty()) {
-            card.add(createTaskDetails("Bevorstehende Tasks (nächste 3 Tage)", upcoming, "#007bff"));
+        TaskSummary next = dashboard.nextDeadline();
+        if (next != null) {
+            DateTimeFormatter df = DateTimeFormatter.ofPattern("dd.MM.yyyy", Locale.GERMAN);
+            Span nextDeadline = new Span("Nächste Deadline: " + next.title() + " am " + next.dueDate().format(df));
+            nextDeadline.getStyle()
+                    .set("font-weight", "bold")
+                    .set("color", "#007bff")
+                    .set("margin-bottom", "15px")
+                    .set("display", "block");
+            card.add(nextDeadline);
+        }
+
+        if (!dashboard.upcoming().isEmpty()) {
+            card.add(createTaskDetails("Bevorstehende Tasks (nächste " + UPCOMING_DAYS + " Tage)",
+                    dashboard.upcoming(), dashboard.upcomingCount(), "#007bff"));
         }
 
-        if (!overdue.isEmpty()) {
-            card.add(createTaskDetails("Überfällige Tasks", overdue, "#dc3545"));
+        if (!dashboard.overdue().isEmpty()) {
+            card.add(createTaskDetails("Überfällige Tasks", dashboard.overdue(), dashboard.overdueCount(), "#dc3545"));
         }
 
         Anchor allTasksLink = new Anchor("/tasks", "Alle Tasks anzeigen");
@@ -119,6 +137,21 @@ public class HomeView extends VerticalLayout {
         return card;
     }
 
+    private Div createCard() {
+        Div card = new Div();
+        card.getStyle()
+                .set("background", "#ffffff")
+                .set("padding", "25px")
+                .set("border-radius", "12px")
+                .set("box-shadow", "0px 4px 12px rgba(0, 0, 0, 0.1)")
+                .set("max-width", "90%")
+                .set("width", "100%")
+                .set("text-align", "center");
+
+        card.add(createAppDescription());
+        return card;
+    }
+
     private Span createAppDescription() {
         Span description = new Span("TaskApp by Nikola Hadzic");
         description.getStyle()
@@ -130,7 +163,7 @@ public class HomeView extends VerticalLayout {
         return description;
     }
 
-    private Details createTaskDetails(String caption, List<Task> tasks, String color) {
+    private Details createTaskDetails(String caption, List<TaskSummary> tasks, long totalCount, String color) {
         DateTimeFormatter df = DateTimeFormatter.ofPattern("dd.MM.yyyy", Locale.GERMAN);
         VerticalLayout list = new VerticalLayout();
         list.setPadding(false);
@@ -138,29 +171,19 @@ public class HomeView extends VerticalLayout {
 
         tasks.forEach(task -> {
             String dateText = caption.contains("Überfällige") ? "war fällig am" : "fällig am";
-            Span item = new Span("• " + task.getTitle() + " (" + dateText + " " + task.getDueDate().format(df) + ")");
+            Span item = new Span("• " + task.title() + " (" + dateText + " " + task.dueDate().format(df) + ")");
             item.getStyle().set("color", color).set("margin-bottom", "5px");
             list.add(item);
         });
 
+        if (totalCount > tasks.size()) {
+            Span more = new Span("… und " + (totalCount - tasks.size()) + " weitere");
+            more.getStyle().set("color", "#666");
+            list.add(more);
+        }
+
         Details details = new Details(caption, list);
         details.setOpened(false);
         return details;
     }
-
-    private List<Task> getUpcomingTasks(List<Task> tasks, LocalDate today) {
-        return tasks.stream()
-                .filter(t -> t.getDueDate() != null)
-                .filter(t -> !"Erledigt".equalsIgnoreCase(t.getStatus()))
-                .filter(t -> !t.getDueDate().isBefore(today) && t.getDueDate().isBefore(today.plusDays(4)))
-                .toList();
-    }
-
-    private List<Task> getOverdueTasks(List<Task> tasks, LocalDate today) {
-        return tasks.stream()
-                .filter(t -> t.getDueDate() != null)
-                .filter(t -> !"Erledigt".equalsIgnoreCase(t.getStatus()))
-                .filter(t -> t.getDueDate().isBefore(today))
-                .toList();
-    }
 }
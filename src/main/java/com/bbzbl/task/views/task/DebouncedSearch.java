@@ -0,0 +1,113 @@
+package com.bbzbl.task.views.task;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs the search of a view in the background once the user stopped typing.
+ * <p>
+ * Every new input cancels the previous search: a search still waiting for its delay never
+ * runs, and the thread of a running one is interrupted. The result is applied to the view
+ * through {@link UI#access} only if no newer input arrived in the meantime, so the view
+ * always shows the result of the latest input. Pending searches are cancelled when the
+ * component is detached.
+ *
+ * @param <Q> the type of the search input, e.g. the text of the search field
+ * @param <T> the type of the search result
+ */
+public class DebouncedSearch<Q, T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DebouncedSearch.class);
+
+    private final ScheduledExecutorService executor;
+    private final Duration delay;
+    private final Function<Q, T> query;
+    private final Consumer<T> apply;
+
+    /**
+     * Incremented on every input; only accessed while holding the session lock.
+     */
+    private long generation;
+    private ScheduledFuture<?> pending;
+
+    /**
+     * Creates a search for a component.
+     *
+     * @param owner    the component whose UI shows the results
+     * @param executor the executor running the queries
+     * @param delay    how long the input must stay unchanged before the query runs
+     * @param query    reads the result for an input; runs in the background and must not access components
+     * @param apply    shows a result; runs with the session lock held
+     */
+    public DebouncedSearch(Component owner, ScheduledExecutorService executor, Duration delay,
+                           Function<Q, T> query, Consumer<T> apply) {
+        this.executor = executor;
+        this.delay = delay;
+        this.query = query;
+        this.apply = apply;
+        owner.addDetachListener(event -> cancel());
+    }
+
+    /**
+     * Schedules the search for a new input, replacing any earlier one.
+     * Must be called from the UI thread, e.g. from a value change listener.
+     *
+     * @param input the current search input; must not refer to components
+     */
+    public void submit(Q input) {
+        UI ui = UI.getCurrent();
+        long current = ++generation;
+        if (pending != null) {
+            pending.cancel(true);
+        }
+        pending = executor.schedule(() -> run(ui, current, input), delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cancels the pending search, if any.
+     */
+    public void cancel() {
+        generation++;
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+    }
+
+    /**
+     * Runs the query in the background and hands the result to the UI if it is still current.
+     *
+     * @param ui      the UI that submitted the search
+     * @param current the generation of the search
+     * @param input   the input to search for
+     */
+    private void run(UI ui, long current, Q input) {
+        T result;
+        try {
+            result = query.apply(input);
+        } catch (RuntimeException e) {
+            if (!Thread.currentThread().isInterrupted()) {
+                logger.warn("Search for {} failed.", input, e);
+            }
+            return;
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        ui.access(() -> {
+            if (current == generation) {
+                pending = null;
+                apply.accept(result);
+            }
+        });
+    }
+}
@@ -1,20 +1,26 @@
 package com.bbzbl.task.views.task;
 
 import com.bbzbl.task.data.entity.Task;
+import com.bbzbl.task.data.entity.TaskPriority;
+import com.bbzbl.task.data.entity.TaskStatus;
+import com.bbzbl.task.data.filter.TaskFilter;
+import com.bbzbl.task.data.repository.TaskSummary;
+import com.bbzbl.task.services.TaskChange;
+import com.bbzbl.task.services.TaskCounts;
+import com.bbzbl.task.services.TaskMove;
 import com.bbzbl.task.services.TaskService;
-import com.vaadin.flow.component.Component;
+import com.bbzbl.task.views.AsyncLoading;
+import com.bbzbl.task.views.UiAccess;
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.combobox.ComboBox;
 import com.vaadin.flow.component.datepicker.DatePicker;
 import com.vaadin.flow.component.dialog.Dialog;
-import com.vaadin.flow.component.icon.Icon;
 import com.vaadin.flow.component.icon.VaadinIcon;
 import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.button.Button;
-import com.vaadin.flow.component.dnd.DragSource;
-import com.vaadin.flow.component.dnd.DropTarget;
-import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.textfield.TextArea;
 import com.vaadin.flow.component.textfield.TextField;
@@ -23,18 +29,27 @@ import com.vaadin.flow.router.Menu;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 import jakarta.annotation.security.PermitAll;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
 import org.vaadin.lineawesome.LineAwesomeIconUrl;
 
+import java.time.Duration;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Locale;
-import java.util.Optional;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * The KanbanView class represents the main view for the task board.
  * It provides functionalities to create, update, delete, and display tasks in a Kanban board layout.
+ * The cards are rendered by the client-side {@link TaskBoard}; the view only sends task data
+ * and handles the batched moves and the card actions reported by it.
  */
 @PermitAll
 @PageTitle("Task Board")
@@ -43,35 +58,66 @@ import java.util.Set;
 public class KanbanView extends VerticalLayout {
 
     private final TaskService taskService;
-    private final Set<String> availableStatuses = Set.of("Offen", "In Bearbeitung", "Erledigt");
 
     private final Dialog taskDialog = new Dialog();
     private final Span taskIdSpan = new Span();
     private final TextField titleField = new TextField("Titel");
     private final TextArea descriptionField = new TextArea("Beschreibung");
-    private final ComboBox<String> priorityField = new ComboBox<>("Priorität");
+    private final ComboBox<TaskPriority> priorityField = new ComboBox<>("Priorität");
     private final TextField durationField = new TextField("Dauer (z. B. 2h)");
-    private final ComboBox<String> statusComboBox = new ComboBox<>("Status");
+    private final ComboBox<TaskStatus> statusComboBox = new ComboBox<>("Status");
     private final DatePicker dueDateField = new DatePicker("Fälligkeitsdatum");
     private final TextField searchField;
     private Task selectedTask;
 
-    private final Div todoTasks;
-    private final Div inProgressTasks;
-    private final Div doneTasks;
+    /**
+     * The number of cards loaded per column at once.
+     */
+    private static final int PAGE_SIZE = 25;
+
+    /**
+     * The number of placeholder cards per column while the board is loading.
+     */
+    private static final int SKELETON_CARDS = 3;
+
+    private final TaskBoard board = new TaskBoard(SKELETON_CARDS);
+
+    /**
+     * The number of cards read per column, so a reload keeps the pages the user loaded.
+     */
+    private final Map<TaskStatus, Integer> loadedSizes = firstPageSizes();
 
-    private Span todoHeader;
-    private Span inProgressHeader;
-    private Span doneHeader;
+    private final DebouncedSearch<String, Board> search;
+
+    /**
+     * The search input the shown cards were read for; lags behind the search field while a search runs.
+     */
+    private String appliedKeyword = "";
+
+    /**
+     * Whether any board data was shown yet; the initial load must not replace newer data.
+     */
+    private boolean boardShown;
+
+    /**
+     * Removes the subscription to the task changes while the view is attached.
+     */
+    private Runnable unsubscribeChanges;
 
     /**
      * Constructor for KanbanView.
      * Initializes the task board view and sets up the UI components.
      *
-     * @param taskService the service to manage tasks
+     * @param taskService    the service to manage tasks
+     * @param searchExecutor the executor running the searches in the background
+     * @param debounceMillis how long the search input must stay unchanged before it is searched
      */
-    public KanbanView(TaskService taskService) {
+    public KanbanView(TaskService taskService,
+                      @Qualifier("searchExecutor") ScheduledExecutorService searchExecutor,
+                      @Value("${taskapp.search.debounce-ms:300}") long debounceMillis) {
         this.taskService = taskService;
+        this.search = new DebouncedSearch<>(this, searchExecutor, Duration.ofMillis(debounceMillis),
+                keyword -> readBoard(keyword, firstPageSizes()), board -> showBoard(board, false));
 
         setSpacing(false);
         setPadding(true);
@@ -98,7 +144,7 @@ public class KanbanView extends VerticalLayout {
                 .set("font-weight", "bold");
 
         searchField = new TextField();
-        searchField.setPlaceholder("🔍 Suche nach Titel...");
+        searchField.setPlaceholder("🔍 Suche in Titel und Beschreibung...");
         searchField.setClearButtonVisible(true);
         searchField.setWidth("300px");
         searchField.setValueChangeMode(ValueChangeMode.EAGER);
@@ -112,33 +158,41 @@ public class KanbanView extends VerticalLayout {
 
         add(topBar);
 
-        HorizontalLayout kanbanLayout = new HorizontalLayout();
-        kanbanLayout.setWidthFull();
-        kanbanLayout.setSpacing(true);
-        kanbanLayout.getStyle()
-                .set("gap", "20px")
-                .set("align-items", "flex-start");
-
-        VerticalLayout todoColumn = new VerticalLayout();
-        ColumnElements todo = setupColumn(todoColumn, "📋 Offen", "Offen", "#28a745");
-        todoHeader = todo.header;
-        todoTasks = todo.container;
-
-        VerticalLayout inProgressColumn = new VerticalLayout();
-        ColumnElements inProgress = setupColumn(inProgressColumn, "⏳ In Bearbeitung", "In Bearbeitung", "#ffc107");
-        inProgressHeader = inProgress.header;
-        inProgressTasks = inProgress.container;
-
-        VerticalLayout doneColumn = new VerticalLayout();
-        ColumnElements done = setupColumn(doneColumn, "✅ Erledigt", "Erledigt", "#007bff");
-        doneHeader = done.header;
-        doneTasks = done.container;
-
-        kanbanLayout.add(todoColumn, inProgressColumn, doneColumn);
-        kanbanLayout.setFlexGrow(1, todoColumn, inProgressColumn, doneColumn);
-        add(title, kanbanLayout);
-
-        loadTasks();
+        board.setWidthFull();
+        board.setColumns(emptyColumns());
+        board.setLoading(true);
+        board.addCardsMovedListener(e -> moveCards(e.getMoves()));
+        // Cards only hold a summary, and may have been moved since they were rendered, so load the current task
+        board.addCardEditListener(e -> taskService.getTaskById(e.getTaskId()).ifPresent(this::openTaskDialog));
+        board.addCardDeleteListener(e -> openDeleteDialog(e.getTaskId()));
+        board.addLoadMoreListener(this::loadNextPage);
+        add(title, board);
+
+        loadBoard();
+    }
+
+    /**
+     * Subscribes to the changes of the user's tasks while the board is shown, so changes made in
+     * other tabs or on other devices show up without reloading the page. The changes are
+     * delivered on threads of the view executor, so they are applied with the user's security
+     * context captured here, which the reads of the board need.
+     *
+     * @param attachEvent the attach event
+     */
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+        Executor access = UiAccess.forCurrentUser(attachEvent.getUI());
+        unsubscribeChanges = taskService.subscribeToChanges(change -> access.execute(() -> applyChange(change)));
+    }
+
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        super.onDetach(detachEvent);
+        if (unsubscribeChanges != null) {
+            unsubscribeChanges.run();
+            unsubscribeChanges = null;
+        }
     }
 
     private void setupTaskDialog() {
@@ -155,15 +209,17 @@ public class KanbanView extends VerticalLayout {
                 .set("width", "100%");
 
         statusComboBox.setPlaceholder("Status auswählen");
-        statusComboBox.setItems("Offen", "In Bearbeitung", "Erledigt");
+        statusComboBox.setItems(TaskStatus.values());
+        statusComboBox.setItemLabelGenerator(TaskLabels::of);
         if (selectedTask == null) {
-            statusComboBox.setValue("Offen");
+            statusComboBox.setValue(TaskStatus.OPEN);
         }
 
         priorityField.setPlaceholder("Priorität auswählen");
-        priorityField.setItems("Niedrig", "Mittel", "Hoch", "Sehr hoch");
+        priorityField.setItems(TaskPriority.values());
+        priorityField.setItemLabelGenerator(TaskLabels::of);
         if (selectedTask == null) {
-            priorityField.setValue("Mittel");
+            priorityField.setValue(TaskPriority.MEDIUM);
         }
 
         titleField.setWidthFull();
@@ -175,27 +231,39 @@ public class KanbanView extends VerticalLayout {
 
         Button saveButton = new Button("Speichern", e -> {
             if (!titleField.getValue().trim().isEmpty()) {
+                Integer durationMinutes;
+                try {
+                    durationMinutes = TaskLabels.parseDuration(durationField.getValue());
+                } catch (IllegalArgumentException ex) {
+                    Notification.show("Ungültige Dauer (z. B. 1h 30min)!", 3000, Notification.Position.TOP_END);
+                    return;
+                }
                 if (selectedTask == null) {
                     taskService.createTask(
                             titleField.getValue(),
                             descriptionField.getValue(),
-                            durationField.getValue(),
+                            durationMinutes,
                             statusComboBox.getValue(),
                             priorityField.getValue(),
                             dueDateField.getValue()
                     );
                     Notification.show("Task erstellt!", 3000, Notification.Position.TOP_END);
                 } else {
-                    taskService.updateTask(
-                            selectedTask.getId(),
-                            titleField.getValue(),
-                            descriptionField.getValue(),
-                            durationField.getValue(),
-                            statusComboBox.getValue(),
-                            priorityField.getValue(),
-                            dueDateField.getValue()
-                    );
-                    Notification.show("Task aktualisiert!", 3000, Notification.Position.TOP_END);
+                    try {
+                        taskService.updateTask(
+                                selectedTask.getId(),
+                                selectedTask.getVersion(),
+                                titleField.getValue(),
+                                descriptionField.getValue(),
+                                durationMinutes,
+                                statusComboBox.getValue(),
+                                priorityField.getValue(),
+                                dueDateField.getValue()
+                        );
+                        Notification.show("Task aktualisiert!", 3000, Notification.Position.TOP_END);
+                    } catch (OptimisticLockingFailureException ex) {
+                        Notification.show("Task wurde inzwischen geändert. Bitte erneut öffnen.", 4000, Notification.Position.TOP_END);
+                    }
                 }
                 taskDialog.close();
                 refreshTasks();
@@ -255,9 +323,9 @@ public class KanbanView extends VerticalLayout {
             taskIdSpan.setText("ID: " + task.getId());
             titleField.setValue(task.getTitle());
             descriptionField.setValue(task.getDescription());
-            durationField.setValue(task.getDuration() != null ? task.getDuration() : "");
-            priorityField.setValue(task.getPriority() != null ? task.getPriority() : "Mittel");
-            statusComboBox.setValue(task.getStatus() != null ? task.getStatus() : "Offen");
+            durationField.setValue(TaskLabels.formatDuration(task.getDurationMinutes()));
+            priorityField.setValue(task.getPriority() != null ? task.getPriority() : TaskPriority.MEDIUM);
+            statusComboBox.setValue(task.getStatus() != null ? task.getStatus() : TaskStatus.OPEN);
             dueDateField.setValue(task.getDueDate());
             statusComboBox.setVisible(true);
             durationField.setVisible(true);
@@ -265,7 +333,7 @@ public class KanbanView extends VerticalLayout {
         taskDialog.open();
     }
 
-    private void openDeleteDialog(Task task) {
+    private void openDeleteDialog(Long taskId) {
         Dialog dialog = new Dialog();
         dialog.setHeaderTitle("Task löschen");
 
@@ -275,7 +343,7 @@ public class KanbanView extends VerticalLayout {
                 .set("font-size", "1em");
 
         Button deleteButton = new Button("Löschen", e -> {
-            taskService.deleteTask(task.getId());
+            taskService.deleteTask(taskId);
             refreshTasks();
             Notification.show("Task gelöscht!", 3000, Notification.Position.TOP_END);
             dialog.close();
@@ -309,271 +377,230 @@ public class KanbanView extends VerticalLayout {
         dialog.add(dialogLayout);
         dialog.open();
     }
+    /**
+     * @param status the status of a column
+     * @return the title of the column header
+     */
+    private static String columnTitle(TaskStatus status) {
+        return switch (status) {
+            case OPEN -> "📋 Offen";
+            case IN_PROGRESS -> "⏳ In Bearbeitung";
+            case DONE -> "✅ Erledigt";
+        };
+    }
 
-    private ColumnElements setupColumn(VerticalLayout columnLayout, String title, String status, String color) {
-        columnLayout.setWidth("100%");
-        columnLayout.setAlignItems(Alignment.CENTER);
-
-        Span header = new Span(title);
-        if (status.equals("In Bearbeitung")) {
-            header.getStyle().set("color", "#333");
-        } else {
-            header.getStyle().set("color", "white");
+    /**
+     * @return the columns without cards, shown while the board is loading
+     */
+    private static List<TaskBoard.Column> emptyColumns() {
+        List<TaskBoard.Column> columns = new ArrayList<>();
+        for (TaskStatus status : TaskStatus.values()) {
+            columns.add(new TaskBoard.Column(status, columnTitle(status), 0, false, List.of()));
         }
-        header.getStyle()
-                .set("font-size", "1.3em")
-                .set("font-weight", "600")
-                .set("background", color)
-                .set("padding", "12px 0")
-                .set("border-radius", "8px")
-                .set("width", "100%")
-                .set("text-align", "center")
-                .set("box-shadow", "0 2px 6px rgba(0,0,0,0.1)")
-                .set("margin-bottom", "15px");
-
-        Div taskContainer = new Div();
-        taskContainer.getElement().setAttribute("status", status);
-        taskContainer.getStyle()
-                .set("background", "white")
-                .set("border-radius", "10px")
-                .set("padding", "20px")
-                .set("width", "100%")
-                .set("min-height", "400px")
-                .set("box-shadow", "0px 4px 10px rgba(0, 0, 0, 0.1)")
-                .set("display", "flex")
-                .set("flex-direction", "column")
-                .set("align-items", "center");
-
-        columnLayout.add(header, taskContainer);
-
-        DropTarget<Div> dropTarget = DropTarget.create(taskContainer);
-        taskContainer.getElement().executeJs("""
-    addEventListener('dragenter', () => this.style.backgroundColor = '#f0f0f0');
-    addEventListener('dragleave', () => this.style.backgroundColor = 'white');
-""");
-
-        dropTarget.addDropListener(event -> {
-            Component dragSource = event.getDragSourceComponent().orElse(null);
-            if (dragSource instanceof Div draggedCard) {
-                String taskId = draggedCard.getElement().getAttribute("task-id");
-                if (taskId != null) {
-                    taskService.getTaskById(Long.valueOf(taskId)).ifPresent(task -> {
-                        String newStatus = taskContainer.getElement().getAttribute("status");
-                        if (newStatus != null && availableStatuses.contains(newStatus) && !newStatus.equals(task.getStatus())) {
-                            task.setStatus(newStatus);
-                            taskService.updateTask(task.getId(), task.getTitle(), task.getDescription(), task.getDuration(), newStatus, task.getPriority(), task.getDueDate());
-
-                            Optional<Component> optionalParent = draggedCard.getParent();
-                            if (optionalParent.isPresent() && optionalParent.get() instanceof Div parentContainer) {
-                                parentContainer.remove(draggedCard);
-                                taskContainer.add(draggedCard);
-                            }
-
-                            Notification.show("Task verschoben nach „" + newStatus + "“", 2000, Notification.Position.TOP_END);
-                        }
-                    });
-                }
-                taskContainer.getStyle().set("background-color", "white");
-            }
-            todoHeader.setText("📋 Offen (" + todoTasks.getComponentCount() + ")");
-            inProgressHeader.setText("⏳ In Bearbeitung (" + inProgressTasks.getComponentCount() + ")");
-            doneHeader.setText("✅ Erledigt (" + doneTasks.getComponentCount() + ")");
-        });
-
-        return new ColumnElements(header, taskContainer);
+        return columns;
     }
 
-    private Div createTaskCard(Task task) {
-        Div card = new Div();
-        card.getElement().setAttribute("task-id", String.valueOf(task.getId()));
-        card.getElement().executeJs("""
-    addEventListener('dragstart', function (event) {
-        event.dataTransfer.setDragImage(this, 50, 20);
-    });
-""");
-        card.getElement().executeJs("""
-    addEventListener('dragstart', () => this.style.opacity = '0.6');
-    addEventListener('dragend', () => this.style.opacity = '1');
-""");
-
-
-        card.getStyle()
-                .set("background", "white")
-                .set("padding", "16px")
-                .set("margin-bottom", "12px")
-                .set("border-radius", "12px")
-                .set("box-shadow", "0px 2px 5px rgba(0, 0, 0, 0.1)")
-                .set("cursor", "grab")
-                .set("transition", "box-shadow 0.3s ease-in-out")
-                .set("width", "100%")
-                .set("box-sizing", "border-box");
-
-        card.addClickListener(event -> {
-            todoTasks.getChildren().forEach(c -> c.getElement().getStyle().remove("background-color"));
-            inProgressTasks.getChildren().forEach(c -> c.getElement().getStyle().remove("background-color"));
-            doneTasks.getChildren().forEach(c -> c.getElement().getStyle().remove("background-color"));
-
-            card.getStyle().set("background-color", "#e9f5ff");
-        });
+    /**
+     * Commits a batch of moves made on the board. The board already shows the moved cards
+     * and gets their committed state through the change subscription. If a task was changed
+     * meanwhile, its move is skipped and the board is read again.
+     *
+     * @param moves the moves reported by the board
+     */
+    private void moveCards(List<TaskMove> moves) {
+        List<TaskSummary> moved = taskService.moveTasks(moves);
+        if (moved.size() < moves.size()) {
+            Notification.show("Task wurde inzwischen geändert", 3000, Notification.Position.TOP_END);
+            refreshTasks();
+        } else if (moved.size() == 1) {
+            Notification.show("Task verschoben nach „" + TaskLabels.of(moved.get(0).status()) + "“", 2000, Notification.Position.TOP_END);
+        } else if (!moved.isEmpty()) {
+            Notification.show(moved.size() + " Tasks verschoben", 2000, Notification.Position.TOP_END);
+        }
+        updateHeaders();
+    }
 
-        card.getElement().executeJs("""
-    addEventListener('mouseover', () => this.style.boxShadow='0px 5px 15px rgba(0, 0, 0, 0.2)');
-    addEventListener('mouseout', () => this.style.boxShadow='0px 2px 5px rgba(0, 0, 0, 0.1)');
-""");
+    /**
+     * The first tasks of a column and the number of all its tasks matching the search.
+     *
+     * @param tasks the tasks to show, possibly one more than requested
+     * @param count the number of matching tasks in the column
+     */
+    private record ColumnData(List<TaskSummary> tasks, long count) {
+    }
 
+    /**
+     * The data of all columns for one search input.
+     *
+     * @param keyword the search input the data was read for
+     * @param columns the data per column
+     */
+    private record Board(String keyword, Map<TaskStatus, ColumnData> columns) {
+    }
 
-        Span title = new Span(task.getTitle());
-        title.getStyle()
-                .set("font-weight", "bold")
-                .set("display", "block")
-                .set("width", "100%");
+    /**
+     * Reads the first page of every column and the task counters in parallel on virtual threads
+     * and shows them once all reads completed. Until then the columns show skeleton cards.
+     */
+    private void loadBoard() {
+        CompletableFuture<TaskCounts> counts = taskService.getTaskCountsAsync();
+        Map<TaskStatus, CompletableFuture<List<TaskSummary>>> pages = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            pages.put(status, taskService.findColumnPageAsync(status, null, PAGE_SIZE + 1));
+        }
+        CompletableFuture<Void> allPages = CompletableFuture.allOf(pages.values().toArray(CompletableFuture[]::new));
+        CompletableFuture<Board> board = counts.thenCombine(allPages, (taskCounts, done) -> {
+            Map<TaskStatus, ColumnData> data = new EnumMap<>(TaskStatus.class);
+            pages.forEach((status, page) -> data.put(status, new ColumnData(page.join(), taskCounts.count(status))));
+            return new Board("", data);
+        });
+        AsyncLoading.load(this, board, loaded -> {
+            if (!boardShown) {
+                showBoard(loaded, false);
+            }
+        });
+    }
 
-        Span description = new Span(task.getDescription());
-        description.getStyle()
-                .set("color", "#666")
-                .set("font-size", "0.9em")
-                .set("display", "block")
-                .set("width", "100%");
+    /**
+     * Searches the board in the background; called on every change of the search field.
+     */
+    private void loadTasks() {
+        search.submit(searchField.getValue());
+    }
 
-        DateTimeFormatter dateOnlyFormatter = DateTimeFormatter.ofPattern("dd.MM.yyyy", Locale.GERMAN);
-        LocalDate heute = LocalDate.now();
+    /**
+     * Reloads the board after a change, keeping as many cards per column as were loaded.
+     */
+    private void refreshTasks() {
+        getUI().ifPresent(ui -> ui.access(() -> showBoard(readBoard(appliedKeyword, loadedSizes), true)));
+    }
 
-        Span dueDate;
-        if (task.getDueDate() != null) {
-            long daysUntilDue = heute.until(task.getDueDate()).getDays();
-            dueDate = new Span("Fällig: " + dateOnlyFormatter.format(task.getDueDate()));
+    /**
+     * Reads the data of all columns. Does not access any component, so it can run in the background.
+     *
+     * @param keyword the search input
+     * @param sizes   the number of tasks to read per column
+     * @return the board data
+     */
+    private Board readBoard(String keyword, Map<TaskStatus, Integer> sizes) {
+        TaskCounts counts = keyword.isBlank() ? taskService.getTaskCounts() : null;
+        Map<TaskStatus, ColumnData> data = new EnumMap<>(TaskStatus.class);
+        sizes.forEach((status, size) -> {
+            List<TaskSummary> tasks = fetchPage(keyword, status, null, null, 0, size + 1);
+            long count = counts != null
+                    ? counts.count(status)
+                    : taskService.countTasks(TaskFilter.all().withKeyword(keyword).withStatus(status));
+            data.put(status, new ColumnData(tasks, count));
+        });
+        return new Board(keyword, data);
+    }
 
-            if (daysUntilDue <= 3) {
-                dueDate.getStyle()
-                        .set("color", "#dc3545")
-                        .set("font-weight", "bold")
-                        .set("font-size", "0.9em");
-            } else {
-                dueDate.getStyle()
-                        .set("color", "#999")
-                        .set("font-size", "0.8em");
-            }
-        } else {
-            dueDate = new Span("Fällig: Nicht festgelegt");
-            dueDate.getStyle()
-                    .set("color", "#999")
-                    .set("font-size", "0.8em");
+    /**
+     * @return one page per column
+     */
+    private static Map<TaskStatus, Integer> firstPageSizes() {
+        Map<TaskStatus, Integer> sizes = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            sizes.put(status, PAGE_SIZE);
         }
+        return sizes;
+    }
 
-        Span duration;
-        if (task.getDuration() != null && !task.getDuration().isBlank()) {
-            duration = new Span("Dauer: " + task.getDuration());
-        } else {
-            duration = new Span("Dauer: Nicht festgelegt");
+    /**
+     * Sends the board data to the browser as one payload, replacing all cards.
+     *
+     * @param board      the data to show
+     * @param keepLoaded true if the data was read for the loaded sizes, false for one page per column
+     */
+    private void showBoard(Board board, boolean keepLoaded) {
+        appliedKeyword = board.keyword();
+        boardShown = true;
+        List<TaskBoard.Column> columns = new ArrayList<>();
+        for (TaskStatus status : TaskStatus.values()) {
+            ColumnData data = board.columns().get(status);
+            int size = keepLoaded ? loadedSizes.get(status) : PAGE_SIZE;
+            List<TaskSummary> visible = data.tasks().subList(0, Math.min(data.tasks().size(), size));
+            loadedSizes.put(status, Math.max(PAGE_SIZE, visible.size()));
+            columns.add(new TaskBoard.Column(status, columnTitle(status), data.count(),
+                    data.tasks().size() > size, visible));
         }
-        duration.getStyle()
-                .set("color", "#666")
-                .set("font-size", "0.8em")
-                .set("display", "block")
-                .set("width", "100%");
-
-        Icon deleteIcon = new Icon(VaadinIcon.TRASH);
-        deleteIcon.getElement().setAttribute("title", "Löschen");
-        deleteIcon.getStyle().set("cursor", "pointer").set("color", "#dc3545");
-        deleteIcon.addClickListener(e -> openDeleteDialog(task));
-
-        Icon editIcon = new Icon(VaadinIcon.EDIT);
-        editIcon.getElement().setAttribute("title", "Bearbeiten");
-        editIcon.getStyle().set("cursor", "pointer");
-        editIcon.addClickListener(e -> openTaskDialog(task));
-
-        editIcon.getStyle().set("cursor", "pointer").set("color", "#007bff");
-        editIcon.getElement().executeJs("""
-    addEventListener('mouseover', () => this.style.color='#0056b3');
-    addEventListener('mouseout', () => this.style.color='#007bff');
-""");
-
-        deleteIcon.getStyle().set("cursor", "pointer").set("color", "#dc3545");
-        deleteIcon.getElement().executeJs("""
-    addEventListener('mouseover', () => this.style.color='#a71d2a');
-    addEventListener('mouseout', () => this.style.color='#dc3545');
-""");
-
-        HorizontalLayout header = new HorizontalLayout(title, editIcon, deleteIcon);
-        header.setWidthFull();
-        header.setJustifyContentMode(JustifyContentMode.BETWEEN);
-
-        Span priorityBadge = new Span(task.getPriority() != null ? task.getPriority() : "Keine Priorität");
-        priorityBadge.getStyle()
-                .set("border-radius", "999px")
-                .set("padding", "4px 12px")
-                .set("font-size", "0.8em")
-                .set("font-weight", "600")
-                .set("color", "white")
-                .set("margin-top", "8px");
+        this.board.setColumns(columns);
+        this.board.setLoading(false);
+    }
 
-        String priority = task.getPriority();
-        if (priority == null) {
-            priority = "";
+    /**
+     * Applies a change committed in any session of the user to the board, sending only the
+     * card of the changed task; the browser patches, moves, inserts or removes it. While
+     * searching, a change cannot be matched against the search in memory, and a bulk change
+     * names no single task, so the loaded cards are read again instead.
+     *
+     * @param change the committed change
+     */
+    private void applyChange(TaskChange change) {
+        if (!boardShown) {
+            return;
         }
-
-        switch (priority) {
-            case "Niedrig" -> priorityBadge.getStyle().set("background", "#28a745");
-            case "Mittel" -> priorityBadge.getStyle().set("background", "#ffc107").set("color", "#333");
-            case "Hoch" -> priorityBadge.getStyle().set("background", "#007bff");
-            case "Sehr hoch" -> priorityBadge.getStyle().set("background", "#dc3545");
-            default -> priorityBadge.getStyle().set("background", "#999");
+        if (!appliedKeyword.isBlank() || change.type() == TaskChange.Type.BULK) {
+            showBoard(readBoard(appliedKeyword, loadedSizes), true);
+            return;
         }
 
-        HorizontalLayout footer = new HorizontalLayout(priorityBadge);
-        footer.setWidthFull();
-        footer.setJustifyContentMode(JustifyContentMode.END);
-        footer.setPadding(false);
-        footer.setSpacing(false);
-        footer.getStyle().set("margin-top", "auto");
-
-        card.add(header, description, dueDate, duration, footer);
-
-        DragSource<Div> dragSource = DragSource.create(card);
-        dragSource.setDraggable(true);
-
-        return card;
+        if (change.type() == TaskChange.Type.DELETED) {
+            board.removeCard(change.taskId());
+        } else {
+            board.upsertCard(change.task());
+        }
+        updateHeaders();
     }
 
-    private void loadTasks() {
-        if (searchField == null) return;
-
-        todoTasks.removeAll();
-        inProgressTasks.removeAll();
-        doneTasks.removeAll();
-
-        List<Task> tasks = taskService.getUserTasks();
-
-        String keyword = searchField.getValue() != null ? searchField.getValue().toLowerCase() : "";
-
-        tasks.stream()
-                .filter(task -> task.getTitle().toLowerCase().contains(keyword))
-                .forEach(task -> {
-                    Div card = createTaskCard(task);
-                    switch (task.getStatus()) {
-                        case "Offen" -> todoTasks.add(card);
-                        case "In Bearbeitung" -> inProgressTasks.add(card);
-                        case "Erledigt" -> doneTasks.add(card);
-                    }
-                });
-
-        todoHeader.setText("📋 Offen (" + todoTasks.getComponentCount() + ")");
-        inProgressHeader.setText("⏳ In Bearbeitung (" + inProgressTasks.getComponentCount() + ")");
-        doneHeader.setText("✅ Erledigt (" + doneTasks.getComponentCount() + ")");
-
+    /**
+     * Sends the next page of a column to the board, after the last card the board read.
+     *
+     * @param event the request of the board
+     */
+    private void loadNextPage(TaskBoard.LoadMoreEvent event) {
+        TaskStatus status = event.getStatus();
+        List<TaskSummary> page = fetchPage(appliedKeyword, status, event.getAfterDueDate(), event.getAfterId(),
+                event.getLoaded(), PAGE_SIZE + 1);
+        List<TaskSummary> visible = page.subList(0, Math.min(page.size(), PAGE_SIZE));
+        loadedSizes.put(status, event.getLoaded() + visible.size());
+        board.appendCards(status, visible, page.size() > PAGE_SIZE);
     }
 
-    private void refreshTasks() {
-        getUI().ifPresent(ui -> ui.access(this::loadTasks));
+    /**
+     * Reads a page of a column. Without a search the page is read with a keyset cursor after
+     * the given task; while searching, by offset in relevance order.
+     *
+     * @param keyword      the search input
+     * @param status       the status of the column
+     * @param afterDueDate the due date of the last task of the previous page, may be null
+     * @param afterId      the ID of the last task of the previous page, or null for the first page
+     * @param offset       the number of tasks before the page
+     * @param limit        the maximum number of tasks to read
+     * @return the tasks of the page
+     */
+    private List<TaskSummary> fetchPage(String keyword, TaskStatus status, LocalDate afterDueDate, Long afterId,
+                                        int offset, int limit) {
+        if (keyword.isBlank()) {
+            return taskService.findColumnPage(status, afterDueDate, afterId, limit);
+        }
+        TaskFilter filter = TaskFilter.all().withKeyword(keyword).withStatus(status);
+        return taskService.findTasks(filter, offset, limit, Sort.unsorted());
     }
 
-    private static class ColumnElements {
-        Span header;
-        Div container;
-
-        ColumnElements(Span header, Div container) {
-            this.header = header;
-            this.container = container;
+    /**
+     * Shows the number of tasks per column. Without a search the numbers come from the
+     * task counters; while searching they are counted by the full-text query, since only
+     * the first pages of the matches are loaded.
+     */
+    private void updateHeaders() {
+        TaskCounts counts = appliedKeyword.isBlank() ? taskService.getTaskCounts() : null;
+        Map<TaskStatus, Long> byStatus = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            byStatus.put(status, counts != null
+                    ? counts.count(status)
+                    : taskService.countTasks(TaskFilter.all().withKeyword(appliedKeyword).withStatus(status)));
         }
+        board.setCounts(byStatus);
     }
-}
\ No newline at end of file
+}
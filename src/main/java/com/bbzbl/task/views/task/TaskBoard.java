@@ -0,0 +1,319 @@
+package com.bbzbl.task.views.task;
+
+import com.bbzbl.task.data.entity.TaskStatus;
+import com.bbzbl.task.data.repository.TaskSummary;
+import com.bbzbl.task.services.TaskMove;
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.ComponentEvent;
+import com.vaadin.flow.component.ComponentEventListener;
+import com.vaadin.flow.component.DomEvent;
+import com.vaadin.flow.component.EventData;
+import com.vaadin.flow.component.HasSize;
+import com.vaadin.flow.component.Tag;
+import com.vaadin.flow.component.dependency.JsModule;
+import com.vaadin.flow.shared.Registration;
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import elemental.json.JsonType;
+import elemental.json.JsonValue;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Server side of the client-side Kanban board {@code <task-board>}.
+ * <p>
+ * The board is a single component: the cards of all columns are sent as one JSON payload and
+ * rendered, dragged and dropped in the browser, so neither the server memory nor the traffic
+ * grows with a component per card. Afterwards only single cards are patched. Moves are applied
+ * in the browser at once and reported in batches by a {@link CardsMovedEvent}.
+ */
+@Tag("task-board")
+@JsModule("./components/task-board.ts")
+public class TaskBoard extends Component implements HasSize {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy", Locale.GERMAN);
+
+    /**
+     * The content of a column.
+     *
+     * @param status  the status of the column
+     * @param title   the title shown in the header
+     * @param count   the number of tasks in the column, including those not loaded
+     * @param hasMore whether more tasks can be loaded
+     * @param tasks   the loaded tasks, in column order
+     */
+    public record Column(TaskStatus status, String title, long count, boolean hasMore, List<TaskSummary> tasks) {
+    }
+
+    /**
+     * Creates a board without cards.
+     *
+     * @param skeletonCards the number of placeholder cards per column while loading
+     */
+    public TaskBoard(int skeletonCards) {
+        getElement().setProperty("skeletonCards", skeletonCards);
+    }
+
+    /**
+     * Shows the given columns, replacing all cards and the paging state.
+     *
+     * @param columns the columns, in display order
+     */
+    public void setColumns(List<Column> columns) {
+        JsonArray json = Json.createArray();
+        for (Column column : columns) {
+            JsonObject object = Json.createObject();
+            object.put("status", column.status().name());
+            object.put("title", column.title());
+            object.put("count", column.count());
+            object.put("hasMore", column.hasMore());
+            object.put("cards", toJson(column.tasks()));
+            json.set(json.length(), object);
+        }
+        getElement().setPropertyJson("columns", json);
+    }
+
+    /**
+     * @param loading true to show placeholder cards instead of the cards
+     */
+    public void setLoading(boolean loading) {
+        getElement().setProperty("loading", loading);
+    }
+
+    /**
+     * Appends the next page to a column.
+     *
+     * @param status  the status of the column
+     * @param tasks   the tasks of the page
+     * @param hasMore whether more tasks can be loaded after the page
+     */
+    public void appendCards(TaskStatus status, List<TaskSummary> tasks, boolean hasMore) {
+        getElement().callJsFunction("appendCards", status.name(), toJson(tasks), hasMore);
+    }
+
+    /**
+     * Shows the committed state of a task at its place in the column of its status.
+     * Older states than the shown one are ignored by the browser.
+     *
+     * @param task the task
+     */
+    public void upsertCard(TaskSummary task) {
+        getElement().callJsFunction("upsertCard", toJson(task));
+    }
+
+    /**
+     * @param taskId the ID of the task whose card is removed
+     */
+    public void removeCard(Long taskId) {
+        getElement().callJsFunction("removeCard", taskId.doubleValue());
+    }
+
+    /**
+     * @param counts the number of tasks per column
+     */
+    public void setCounts(Map<TaskStatus, Long> counts) {
+        JsonObject json = Json.createObject();
+        counts.forEach((status, count) -> json.put(status.name(), count));
+        getElement().callJsFunction("setCounts", json);
+    }
+
+    /**
+     * @param listener called with every batch of moves made in the browser
+     * @return a handle to remove the listener
+     */
+    public Registration addCardsMovedListener(ComponentEventListener<CardsMovedEvent> listener) {
+        return addListener(CardsMovedEvent.class, listener);
+    }
+
+    /**
+     * @param listener called when the edit icon of a card is clicked
+     * @return a handle to remove the listener
+     */
+    public Registration addCardEditListener(ComponentEventListener<CardEditEvent> listener) {
+        return addListener(CardEditEvent.class, listener);
+    }
+
+    /**
+     * @param listener called when the delete icon of a card is clicked
+     * @return a handle to remove the listener
+     */
+    public Registration addCardDeleteListener(ComponentEventListener<CardDeleteEvent> listener) {
+        return addListener(CardDeleteEvent.class, listener);
+    }
+
+    /**
+     * @param listener called when the user scrolled to the end of a column or asked for more cards
+     * @return a handle to remove the listener
+     */
+    public Registration addLoadMoreListener(ComponentEventListener<LoadMoreEvent> listener) {
+        return addListener(LoadMoreEvent.class, listener);
+    }
+
+    private static JsonArray toJson(List<TaskSummary> tasks) {
+        JsonArray json = Json.createArray();
+        for (TaskSummary task : tasks) {
+            json.set(json.length(), toJson(task));
+        }
+        return json;
+    }
+
+    /**
+     * Formats a task for its card; the browser only renders the texts.
+     */
+    private static JsonObject toJson(TaskSummary task) {
+        JsonObject card = Json.createObject();
+        card.put("id", task.id());
+        card.put("version", task.version());
+        card.put("status", task.status().name());
+        card.put("title", task.title());
+        String description = task.descriptionPreview() != null ? task.descriptionPreview() : "";
+        card.put("description", task.isDescriptionTruncated() ? description + "…" : description);
+        if (task.dueDate() != null) {
+            card.put("dueDate", task.dueDate().toString());
+            card.put("dueLabel", "Fällig: " + DATE_FORMAT.format(task.dueDate()));
+            card.put("urgent", TaskLabels.isDueSoon(task.dueDate()));
+        } else {
+            card.put("dueDate", Json.createNull());
+            card.put("dueLabel", "Fällig: Nicht festgelegt");
+            card.put("urgent", false);
+        }
+        card.put("duration", task.durationMinutes() != null
+                ? "Dauer: " + TaskLabels.formatDuration(task.durationMinutes())
+                : "Dauer: Nicht festgelegt");
+        card.put("priority", task.priority() != null ? Json.create(task.priority().name()) : Json.createNull());
+        card.put("priorityLabel", task.priority() != null ? TaskLabels.of(task.priority()) : "Keine Priorität");
+        return card;
+    }
+
+    private static Long idOf(JsonObject detail) {
+        return (long) detail.getNumber("id");
+    }
+
+    /**
+     * A batch of cards moved to other columns in the browser.
+     */
+    @DomEvent("cards-moved")
+    public static class CardsMovedEvent extends ComponentEvent<TaskBoard> {
+
+        private final List<TaskMove> moves = new ArrayList<>();
+
+        /**
+         * @param source     the board
+         * @param fromClient always true
+         * @param moves      one {@code [id, version, status]} array per moved card
+         */
+        public CardsMovedEvent(TaskBoard source, boolean fromClient, @EventData("event.detail.moves") JsonArray moves) {
+            super(source, fromClient);
+            for (int i = 0; i < moves.length(); i++) {
+                JsonArray move = moves.getArray(i);
+                this.moves.add(new TaskMove((long) move.getNumber(0), (long) move.getNumber(1),
+                        TaskStatus.valueOf(move.getString(2))));
+            }
+        }
+
+        /**
+         * @return the moves, each with the version of the task the browser last knew
+         */
+        public List<TaskMove> getMoves() {
+            return moves;
+        }
+    }
+
+    /**
+     * The edit icon of a card was clicked.
+     */
+    @DomEvent("card-edit")
+    public static class CardEditEvent extends ComponentEvent<TaskBoard> {
+
+        private final Long taskId;
+
+        public CardEditEvent(TaskBoard source, boolean fromClient, @EventData("event.detail") JsonObject detail) {
+            super(source, fromClient);
+            this.taskId = idOf(detail);
+        }
+
+        /**
+         * @return the ID of the task of the card
+         */
+        public Long getTaskId() {
+            return taskId;
+        }
+    }
+
+    /**
+     * The delete icon of a card was clicked.
+     */
+    @DomEvent("card-delete")
+    public static class CardDeleteEvent extends ComponentEvent<TaskBoard> {
+
+        private final Long taskId;
+
+        public CardDeleteEvent(TaskBoard source, boolean fromClient, @EventData("event.detail") JsonObject detail) {
+            super(source, fromClient);
+            this.taskId = idOf(detail);
+        }
+
+        /**
+         * @return the ID of the task of the card
+         */
+        public Long getTaskId() {
+            return taskId;
+        }
+    }
+
+    /**
+     * The next page of a column is requested.
+     */
+    @DomEvent("load-more")
+    public static class LoadMoreEvent extends ComponentEvent<TaskBoard> {
+
+        private final TaskStatus status;
+        private final Long afterId;
+        private final LocalDate afterDueDate;
+        private final int loaded;
+
+        public LoadMoreEvent(TaskBoard source, boolean fromClient, @EventData("event.detail") JsonObject detail) {
+            super(source, fromClient);
+            this.status = TaskStatus.valueOf(detail.getString("status"));
+            JsonValue id = detail.get("afterId");
+            this.afterId = id == null || id.getType() == JsonType.NULL ? null : (long) id.asNumber();
+            JsonValue dueDate = detail.get("afterDueDate");
+            this.afterDueDate = dueDate == null || dueDate.getType() == JsonType.NULL ? null : LocalDate.parse(dueDate.asString());
+            this.loaded = (int) detail.getNumber("loaded");
+        }
+
+        /**
+         * @return the status of the column
+         */
+        public TaskStatus getStatus() {
+            return status;
+        }
+
+        /**
+         * @return the ID of the last card loaded from the server, or null if none was loaded
+         */
+        public Long getAfterId() {
+            return afterId;
+        }
+
+        /**
+         * @return the due date of the last card loaded from the server, may be null
+         */
+        public LocalDate getAfterDueDate() {
+            return afterDueDate;
+        }
+
+        /**
+         * @return the number of cards loaded from the server, the offset of the next page while searching
+         */
+        public int getLoaded() {
+            return loaded;
+        }
+    }
+}
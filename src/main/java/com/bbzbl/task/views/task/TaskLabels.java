@@ -0,0 +1,109 @@
+package com.bbzbl.task.views.task;
+
+import com.bbzbl.task.data.entity.TaskPriority;
+import com.bbzbl.task.data.entity.TaskStatus;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * German display labels for the typed task values, parsing and formatting of durations,
+ * and the highlighting rule for due dates.
+ * The database only stores codes and minutes; the texts shown to the user are defined here.
+ */
+public final class TaskLabels {
+
+    /**
+     * Durations like "2h", "1,5 h", "1h 30min", "45min" or "45m"; a plain number counts as hours.
+     */
+    private static final Pattern DURATION = Pattern.compile(
+            "^(?:(\\d+(?:[.,]\\d+)?)\\s*h?)?\\s*(?:(\\d+)\\s*(?:min|m))?$");
+
+    /**
+     * Due dates at most this many days ahead are highlighted.
+     */
+    private static final int DUE_SOON_DAYS = 3;
+
+    private TaskLabels() {
+    }
+
+    /**
+     * @param status the status, may be null
+     * @return the German label of the status
+     */
+    public static String of(TaskStatus status) {
+        if (status == null) {
+            return "Keiner";
+        }
+        return switch (status) {
+            case OPEN -> "Offen";
+            case IN_PROGRESS -> "In Bearbeitung";
+            case DONE -> "Erledigt";
+        };
+    }
+
+    /**
+     * @param priority the priority, may be null
+     * @return the German label of the priority
+     */
+    public static String of(TaskPriority priority) {
+        if (priority == null) {
+            return "Keine";
+        }
+        return switch (priority) {
+            case LOW -> "Niedrig";
+            case MEDIUM -> "Mittel";
+            case HIGH -> "Hoch";
+            case VERY_HIGH -> "Sehr hoch";
+        };
+    }
+
+    /**
+     * Formats a duration for display, e.g. "1h 30min".
+     *
+     * @param minutes the duration in minutes, may be null
+     * @return the formatted duration, or an empty string if there is none
+     */
+    public static String formatDuration(Integer minutes) {
+        if (minutes == null) {
+            return "";
+        }
+        int hours = minutes / 60;
+        int rest = minutes % 60;
+        if (rest == 0) {
+            return hours + "h";
+        }
+        return hours == 0 ? rest + "min" : hours + "h " + rest + "min";
+    }
+
+    /**
+     * Parses a duration entered by the user, e.g. "2h", "1,5h", "1h 30min" or "45min".
+     *
+     * @param text the input, may be null or blank
+     * @return the duration in minutes, or null if the input is blank
+     * @throws IllegalArgumentException if the input is not a valid duration
+     */
+    public static Integer parseDuration(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        Matcher matcher = DURATION.matcher(text.trim().toLowerCase(Locale.ROOT));
+        if (!matcher.matches() || matcher.group(1) == null && matcher.group(2) == null) {
+            throw new IllegalArgumentException("Invalid duration: " + text);
+        }
+        double hours = matcher.group(1) == null ? 0 : Double.parseDouble(matcher.group(1).replace(',', '.'));
+        int minutes = matcher.group(2) == null ? 0 : Integer.parseInt(matcher.group(2));
+        return (int) Math.round(hours * 60) + minutes;
+    }
+
+    /**
+     * @param dueDate the due date, may be null
+     * @return true if the due date has passed or is at most three days ahead
+     */
+    public static boolean isDueSoon(LocalDate dueDate) {
+        return dueDate != null && LocalDate.now().until(dueDate, ChronoUnit.DAYS) <= DUE_SOON_DAYS;
+    }
+}
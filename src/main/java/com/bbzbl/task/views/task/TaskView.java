@@ -1,34 +1,73 @@
 package com.bbzbl.task.views.task;
 
 import com.bbzbl.task.data.entity.Task;
+import com.bbzbl.task.data.entity.TaskPriority;
+import com.bbzbl.task.data.entity.TaskStatus;
+import com.bbzbl.task.data.filter.TaskFilter;
+import com.bbzbl.task.data.repository.TaskSummary;
+import com.bbzbl.task.services.TaskChange;
+import com.bbzbl.task.services.TaskExporter;
+import com.bbzbl.task.services.TaskImporter;
 import com.bbzbl.task.services.TaskService;
+import com.bbzbl.task.views.AsyncLoading;
+import com.bbzbl.task.views.UiAccess;
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.DetachEvent;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.checkbox.Checkbox;
 import com.vaadin.flow.component.combobox.ComboBox;
 import com.vaadin.flow.component.confirmdialog.ConfirmDialog;
-import com.vaadin.flow.component.contextmenu.ContextMenu;
 import com.vaadin.flow.component.datepicker.DatePicker;
 import com.vaadin.flow.component.dialog.Dialog;
+import com.vaadin.flow.component.ItemLabelGenerator;
 import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.html.Anchor;
 import com.vaadin.flow.component.html.Span;
-import com.vaadin.flow.component.icon.Icon;
 import com.vaadin.flow.component.icon.VaadinIcon;
 import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.progressbar.ProgressBar;
+import com.vaadin.flow.component.textfield.IntegerField;
 import com.vaadin.flow.component.textfield.TextArea;
 import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.component.upload.Upload;
+import com.vaadin.flow.component.upload.receivers.FileBuffer;
+import com.vaadin.flow.data.provider.CallbackDataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import com.vaadin.flow.data.renderer.LitRenderer;
 import com.vaadin.flow.data.value.ValueChangeMode;
+import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.function.ValueProvider;
 import com.vaadin.flow.router.Menu;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
+import com.vaadin.flow.server.StreamResource;
+import com.vaadin.flow.spring.data.VaadinSpringDataHelpers;
 import jakarta.annotation.security.PermitAll;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
 import org.vaadin.lineawesome.LineAwesomeIconUrl;
 
+import java.io.File;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.BiConsumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
 
 /**
  * TaskView class for displaying and managing tasks.
@@ -41,7 +80,9 @@ import java.util.Random;
 public class TaskView extends VerticalLayout {
 
     private final TaskService taskService;
-    private final Grid<Task> taskGrid = new Grid<>(Task.class, false);
+    private final TaskExporter taskExporter;
+    private final TaskImporter taskImporter;
+    private final Grid<TaskSummary> taskGrid = new Grid<>();
 
     private Task selectedTask;
 
@@ -53,20 +94,96 @@ public class TaskView extends VerticalLayout {
     private final TextField titleField = new TextField("Titel");
     private final TextArea descriptionField = new TextArea("Beschreibung");
     private final TextField durationField = new TextField("Dauer (z. B. 2h)");
-    private final ComboBox<String> priorityField = new ComboBox<>("Priorität");
-    private final Button deleteSelectedButton;
-    private final ComboBox<String> statusComboBox = new ComboBox<>("Status");
+    private final ComboBox<TaskPriority> priorityField = new ComboBox<>("Priorität");
+    private final HorizontalLayout bulkActions;
+    private final ComboBox<TaskStatus> statusComboBox = new ComboBox<>("Status");
     private final DatePicker dueDateField = new DatePicker("Fälligkeitsdatum");
     private final TextField searchField;
-    private final ComboBox<String> statusFilter;
+    private final ComboBox<TaskStatus> statusFilter;
+    private CallbackDataProvider<TaskSummary, Void> taskDataProvider;
+
+    /**
+     * The editor popup of the priority and status badges, shared by all rows.
+     */
+    private final Dialog badgeDialog = new Dialog();
+    private final ComboBox<TaskPriority> priorityEditor;
+    private final ComboBox<TaskStatus> statusEditor;
+
+    /**
+     * The task whose badge is being edited, or null if the badge editor is closed.
+     */
+    private TaskSummary editedTask;
+
+    /**
+     * The filter and sort order of a background search, captured on the UI thread.
+     *
+     * @param filter the filter including the search input
+     * @param sort   the sort order of the grid
+     * @param limit  the number of tasks to read ahead
+     */
+    private record GridQuery(TaskFilter filter, Sort sort, int limit) {
+    }
+
+    /**
+     * The number of matching tasks and the first tasks read by a background search.
+     *
+     * @param query the search the result was read for
+     * @param count the number of matching tasks
+     * @param tasks the first tasks in the sort order of the search
+     */
+    private record GridResult(GridQuery query, int count, List<TaskSummary> tasks) {
+    }
+
+    private final DebouncedSearch<GridQuery, GridResult> search;
+
+    /**
+     * The search input the grid shows; lags behind the search field while a search runs.
+     */
+    private String appliedKeyword = "";
+
+    /**
+     * The result of the latest search, served to the grid until the filter or sort order changes.
+     */
+    private GridResult prefetched;
+
+    /**
+     * Whether the grid shows data; until the first tasks are read it is empty and the loading bar is shown.
+     */
+    private boolean gridLoaded;
+
+    private final ProgressBar loadingBar = new ProgressBar();
+
+    /**
+     * Removes the subscription to the task changes while the view is attached.
+     */
+    private Runnable unsubscribeChanges;
 
     /**
      * Constructor for TaskView.
      *
-     * @param taskService the service for managing tasks
+     * @param taskService    the service for managing tasks
+     * @param taskExporter   the service exporting the tasks as a file
+     * @param taskImporter   the service importing tasks from a file
+     * @param searchExecutor the executor running the searches in the background
+     * @param debounceMillis how long the search input must stay unchanged before it is searched
      */
-    public TaskView(TaskService taskService) {
+    public TaskView(TaskService taskService, TaskExporter taskExporter, TaskImporter taskImporter,
+                    @Qualifier("searchExecutor") ScheduledExecutorService searchExecutor,
+                    @Value("${taskapp.search.debounce-ms:300}") long debounceMillis) {
         this.taskService = taskService;
+        this.taskExporter = taskExporter;
+        this.taskImporter = taskImporter;
+        this.search = new DebouncedSearch<>(this, searchExecutor, Duration.ofMillis(debounceMillis),
+                this::readGrid, this::showGrid);
+
+        this.priorityEditor = createBadgeEditor(TaskPriority.values(), TaskLabels::of,
+                (task, priority) -> taskService.changePriority(task.id(), task.version(), priority));
+        this.statusEditor = createBadgeEditor(TaskStatus.values(), TaskLabels::of,
+                (task, status) -> taskService.moveTask(task.id(), task.version(), status));
+        badgeDialog.addDialogCloseActionListener(e -> {
+            editedTask = null;
+            badgeDialog.close();
+        });
 
         setSpacing(false);
         setPadding(true);
@@ -75,15 +192,18 @@ public class TaskView extends VerticalLayout {
         getStyle().set("background", "linear-gradient(to right, #eef2f3, #dfe9f3)");
 
         searchField = new TextField();
-        searchField.setPlaceholder("🔍 Suche nach Titel...");
+        searchField.setPlaceholder("🔍 Suche in Titel und Beschreibung...");
         searchField.setClearButtonVisible(true);
         searchField.setWidth("300px");
         searchField.setValueChangeMode(ValueChangeMode.EAGER);
-        searchField.addValueChangeListener(e -> refreshGrid());
+        searchField.addValueChangeListener(e -> search.submit(new GridQuery(
+                currentFilter().withKeyword(e.getValue()), currentSort(), taskGrid.getPageSize())));
 
         statusFilter = new ComboBox<>("Status");
-        statusFilter.setItems("Alle", "Offen", "In Bearbeitung", "Erledigt");
-        statusFilter.setValue("Alle");
+        statusFilter.setItems(TaskStatus.values());
+        statusFilter.setItemLabelGenerator(TaskLabels::of);
+        statusFilter.setPlaceholder("Alle");
+        statusFilter.setClearButtonVisible(true);
         statusFilter.setWidth("200px");
         statusFilter.addValueChangeListener(e -> refreshGrid());
 
@@ -98,8 +218,8 @@ public class TaskView extends VerticalLayout {
                 .set("border-radius", "8px")
                 .set("padding", "10px 15px")
                 .set("font-weight", "bold");
-        deleteSelectedButton = new Button("🗑 Ausgewählte löschen", e -> {
-            List<Task> selected = taskGrid.getSelectedItems().stream().toList();
+        Button deleteSelectedButton = new Button("🗑 Ausgewählte löschen", e -> {
+            List<Long> selected = selectedIds();
             if (selected.isEmpty()) {
                 Notification.show("⚠️ Keine Tasks ausgewählt", 3000, Notification.Position.TOP_CENTER);
                 return;
@@ -111,8 +231,9 @@ public class TaskView extends VerticalLayout {
             confirmDialog.setConfirmText("Löschen");
             confirmDialog.setCancelText("Abbrechen");
             confirmDialog.addConfirmListener(event -> {
-                selected.forEach(task -> taskService.deleteTask(task.getId()));
-                Notification.show(selected.size() + " Task(s) gelöscht", 3000, Notification.Position.TOP_END);
+                int deleted = taskService.deleteTasks(selected);
+                taskGrid.deselectAll();
+                Notification.show(deleted + " Task(s) gelöscht", 3000, Notification.Position.TOP_END);
                 refreshGrid();
             });
             confirmDialog.open();
@@ -122,8 +243,50 @@ public class TaskView extends VerticalLayout {
                 .set("color", "white")
                 .set("border-radius", "8px")
                 .set("font-weight", "bold");
-        taskGrid.addSelectionListener(event -> deleteSelectedButton.setVisible(!event.getAllSelectedItems().isEmpty()));
-        deleteSelectedButton.setVisible(false);
+
+        ComboBox<TaskStatus> bulkStatus = new ComboBox<>();
+        bulkStatus.setPlaceholder("Status setzen");
+        bulkStatus.setItems(TaskStatus.values());
+        bulkStatus.setItemLabelGenerator(TaskLabels::of);
+        bulkStatus.setWidth("170px");
+        bulkStatus.addValueChangeListener(e -> {
+            if (e.isFromClient() && e.getValue() != null) {
+                applyToSelection(ids -> taskService.changeStatus(ids, e.getValue()));
+                bulkStatus.clear();
+            }
+        });
+
+        ComboBox<TaskPriority> bulkPriority = new ComboBox<>();
+        bulkPriority.setPlaceholder("Priorität setzen");
+        bulkPriority.setItems(TaskPriority.values());
+        bulkPriority.setItemLabelGenerator(TaskLabels::of);
+        bulkPriority.setWidth("170px");
+        bulkPriority.addValueChangeListener(e -> {
+            if (e.isFromClient() && e.getValue() != null) {
+                applyToSelection(ids -> taskService.changePriority(ids, e.getValue()));
+                bulkPriority.clear();
+            }
+        });
+
+        IntegerField shiftDays = new IntegerField();
+        shiftDays.setPlaceholder("Tage");
+        shiftDays.setStepButtonsVisible(true);
+        shiftDays.setWidth("120px");
+        Button shiftButton = new Button("Fälligkeit verschieben", e -> {
+            Integer days = shiftDays.getValue();
+            if (days == null || days == 0) {
+                Notification.show("Anzahl Tage angeben (z. B. 7 oder -3)", 3000, Notification.Position.TOP_END);
+                return;
+            }
+            applyToSelection(ids -> taskService.shiftDueDates(ids, days));
+            shiftDays.clear();
+        });
+
+        bulkActions = new HorizontalLayout(deleteSelectedButton, bulkStatus, bulkPriority, shiftDays, shiftButton);
+        bulkActions.setSpacing(true);
+        bulkActions.setAlignItems(Alignment.END);
+        taskGrid.addSelectionListener(event -> bulkActions.setVisible(!event.getAllSelectedItems().isEmpty()));
+        bulkActions.setVisible(false);
 
         Button testTasksButton = new Button("⚙ Testdaten", e -> {
             String[] titles = {
@@ -137,18 +300,18 @@ public class TaskView extends VerticalLayout {
                     "Feedback einholen", "Abstimmung mit Produktmanager", "Tests ergänzen", "Review durch QA-Team"
             };
 
-            String[] durations = {"30min", "1h", "2h", "3h", "Halber Tag", "Ganzer Tag"};
-            String[] statuses = {"Offen", "In Bearbeitung", "Erledigt"};
-            String[] priorities = {"Niedrig", "Mittel", "Hoch", "Sehr hoch"};
+            int[] durations = {30, 60, 120, 180, 240, 480};
+            TaskStatus[] statuses = TaskStatus.values();
+            TaskPriority[] priorities = TaskPriority.values();
 
             Random random = new Random();
 
             for (int i = 0; i < 50; i++) {
                 String title = titles[random.nextInt(titles.length)] + " #" + (i + 1);
                 String desc = descriptions[random.nextInt(descriptions.length)];
-                String duration = durations[random.nextInt(durations.length)];
-                String status = statuses[random.nextInt(statuses.length)];
-                String priority = priorities[random.nextInt(priorities.length)];
+                int duration = durations[random.nextInt(durations.length)];
+                TaskStatus status = statuses[random.nextInt(statuses.length)];
+                TaskPriority priority = priorities[random.nextInt(priorities.length)];
                 LocalDate due = LocalDate.now().plusDays(random.nextInt(30) - 10); // ±10 Tage von heute
 
                 taskService.createTask(title, desc, duration, status, priority, due);
@@ -157,7 +320,16 @@ public class TaskView extends VerticalLayout {
             Notification.show("✅ 50 realistische Testtasks erstellt");
             refreshGrid();
         });
-        testTasksButton.getStyle().set("margin-right", "auto");
+
+        Checkbox gzipExport = new Checkbox("gzip");
+        Button importButton = new Button("Import", VaadinIcon.UPLOAD.create(), e -> openImportDialog());
+        HorizontalLayout fileActions = new HorizontalLayout(
+                createExportLink("CSV", TaskExporter.Format.CSV, gzipExport),
+                createExportLink("JSON", TaskExporter.Format.JSON, gzipExport),
+                gzipExport, importButton);
+        fileActions.setSpacing(true);
+        fileActions.setAlignItems(Alignment.CENTER);
+        fileActions.getStyle().set("margin-right", "auto");
 
         HorizontalLayout topBar = new HorizontalLayout();
         topBar.setWidthFull();
@@ -165,20 +337,201 @@ public class TaskView extends VerticalLayout {
         topBar.setSpacing(true);
         topBar.setAlignItems(Alignment.END);
         topBar.setJustifyContentMode(JustifyContentMode.BETWEEN);
-        topBar.add(addTaskButton, deleteSelectedButton, testTasksButton, rightFilters);
+        topBar.add(addTaskButton, bulkActions, testTasksButton, fileActions, rightFilters);
 
         setSizeFull();
         taskGrid.setSizeFull();
+        loadingBar.setIndeterminate(true);
         add(topBar);
+        add(loadingBar);
         add(createTaskGrid());
         topBar.getStyle().set("z-index", "1").set("background", "#eef2f3");
         expand(taskGrid);
 
         setupTaskDialog();
+        loadGrid();
     }
 
-    private Grid<Task> createTaskGrid() {
-        taskGrid.setItems(taskService.getUserTasks());
+    /**
+     * Creates a link downloading all tasks of the user in a format. The file is written while it
+     * is downloaded, so the tasks are never held in memory.
+     *
+     * @param label  the label of the link
+     * @param format the file format
+     * @param gzip   the checkbox choosing whether the file is gzip-compressed
+     * @return the link
+     */
+    private Anchor createExportLink(String label, TaskExporter.Format format, Checkbox gzip) {
+        Anchor link = new Anchor();
+        link.getElement().setAttribute("download", true);
+        link.add(new Button(label, VaadinIcon.DOWNLOAD.create()));
+        link.setHref(createExportResource(format, gzip.getValue()));
+        gzip.addValueChangeListener(e -> link.setHref(createExportResource(format, e.getValue())));
+        return link;
+    }
+
+    private StreamResource createExportResource(TaskExporter.Format format, boolean gzip) {
+        TaskExporter.Export export = taskExporter.prepare(format, gzip);
+        StreamResource resource = new StreamResource(export.fileName(), (out, session) -> taskExporter.write(export, out));
+        resource.setContentType(export.contentType());
+        resource.setCacheTime(0);
+        return resource;
+    }
+
+    /**
+     * Opens the dialog importing tasks from a CSV or JSON file. The file is imported in the
+     * background; the dialog shows the progress and the records that were not imported, either
+     * because they are invalid or because their task already exists.
+     */
+    private void openImportDialog() {
+        Dialog dialog = new Dialog();
+        dialog.setHeaderTitle("Tasks importieren");
+        dialog.setWidth("600px");
+
+        Span hint = new Span("CSV- oder JSON-Datei mit den Spalten des Exports, auch gzip-komprimiert. "
+                + "Bereits vorhandene Tasks werden übersprungen.");
+        hint.getStyle().set("color", "#555");
+
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setVisible(false);
+        Span status = new Span();
+
+        Grid<ImportMessage> messageGrid = new Grid<>();
+        messageGrid.addColumn(ImportMessage::record).setHeader("Datensatz").setAutoWidth(true).setFlexGrow(0);
+        messageGrid.addColumn(ImportMessage::outcome).setHeader("Ergebnis").setAutoWidth(true).setFlexGrow(0);
+        messageGrid.addColumn(ImportMessage::message).setHeader("Grund");
+        messageGrid.setHeight("200px");
+        messageGrid.setVisible(false);
+
+        FileBuffer buffer = new FileBuffer();
+        Upload upload = new Upload(buffer);
+        upload.setAcceptedFileTypes(".csv", ".json", ".gz");
+        upload.setMaxFiles(1);
+        upload.addSucceededListener(event -> {
+            File file = buffer.getFileData().getFile();
+            Optional<TaskExporter.Format> format = TaskImporter.formatOf(event.getFileName());
+            if (format.isEmpty()) {
+                file.delete();
+                upload.clearFileList();
+                Notification.show("Nur CSV- und JSON-Dateien können importiert werden", 3000, Notification.Position.TOP_END);
+                return;
+            }
+            upload.setVisible(false);
+            progressBar.setVisible(true);
+            status.setText("Import läuft …");
+
+            // The import reports from its writer thread, and the grid reads the user's tasks when refreshed
+            Executor access = UiAccess.forCurrentUser(UI.getCurrent());
+            taskImporter.start(taskImporter.prepare(format.get()), file.toPath(), progress -> access.execute(() -> {
+                progressBar.setValue(progress.fraction());
+                status.setText(importSummary(progress.imported(), progress.skipped(), progress.failed()));
+            })).whenComplete((result, failure) -> {
+                file.delete();
+                access.execute(() -> {
+                    progressBar.setVisible(false);
+                    if (failure != null) {
+                        status.setText(failure instanceof IllegalArgumentException
+                                ? "Import abgebrochen: " + failure.getMessage()
+                                : "Import abgebrochen!");
+                        Notification.show("Import fehlgeschlagen", 3000, Notification.Position.TOP_END);
+                    } else {
+                        status.setText(importSummary(result.imported(), result.skipped(), result.failed()));
+                        List<ImportMessage> messages = importMessages(result);
+                        messageGrid.setItems(messages);
+                        messageGrid.setVisible(!messages.isEmpty());
+                        Notification.show(result.imported() + " Task(s) importiert"
+                                + (result.skipped() > 0 ? ", " + result.skipped() + " übersprungen" : ""),
+                                3000, Notification.Position.TOP_END);
+                    }
+                    refreshGrid();
+                });
+            });
+        });
+
+        Button closeButton = new Button("Schließen", e -> dialog.close());
+        dialog.getFooter().add(closeButton);
+
+        VerticalLayout dialogLayout = new VerticalLayout(hint, upload, progressBar, status, messageGrid);
+        dialogLayout.setPadding(false);
+        dialogLayout.setSpacing(true);
+        dialog.add(dialogLayout);
+        dialog.open();
+    }
+
+    private static String importSummary(long imported, long skipped, long failed) {
+        return imported + " importiert, " + skipped + " übersprungen, " + failed + " fehlerhaft";
+    }
+
+    /**
+     * A record that was not imported, as listed in the import dialog.
+     *
+     * @param record  the number of the record in the file
+     * @param outcome whether the record was invalid or skipped
+     * @param message the reason
+     */
+    private record ImportMessage(long record, String outcome, String message) {
+    }
+
+    /**
+     * @return the reported invalid and skipped records of the import, by record number
+     */
+    private static List<ImportMessage> importMessages(TaskImporter.Result result) {
+        return Stream.concat(
+                        result.errors().stream().map(error -> new ImportMessage(error.record(), "Fehler", error.message())),
+                        result.skippedRecords().stream().map(skipped -> new ImportMessage(skipped.record(), "Übersprungen", skipped.message())))
+                .sorted(Comparator.comparingLong(ImportMessage::record))
+                .toList();
+    }
+
+    /**
+     * Subscribes to the changes of the user's tasks while the list is shown, so changes made in
+     * other tabs or on other devices show up without reloading the page. The changes are
+     * delivered on threads of the view executor, so they are applied with the user's security
+     * context captured here, which the reads of the list need.
+     *
+     * @param attachEvent the attach event
+     */
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+        Executor access = UiAccess.forCurrentUser(attachEvent.getUI());
+        unsubscribeChanges = taskService.subscribeToChanges(change -> access.execute(() -> applyChange(change)));
+    }
+
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        super.onDetach(detachEvent);
+        if (unsubscribeChanges != null) {
+            unsubscribeChanges.run();
+            unsubscribeChanges = null;
+        }
+    }
+
+    private Grid<TaskSummary> createTaskGrid() {
+        taskDataProvider = new CallbackDataProvider<>(
+                query -> {
+                    if (!gridLoaded) {
+                        return Stream.empty();
+                    }
+                    Sort sort = VaadinSpringDataHelpers.toSpringDataSort(query);
+                    if (isPrefetched(sort, query.getOffset(), query.getLimit())) {
+                        List<TaskSummary> tasks = prefetched.tasks();
+                        return tasks.subList(Math.min(query.getOffset(), tasks.size()),
+                                Math.min(query.getOffset() + query.getLimit(), tasks.size())).stream();
+                    }
+                    return taskService.findTasks(currentFilter(), query.getOffset(), query.getLimit(), sort).stream();
+                },
+                query -> {
+                    if (!gridLoaded) {
+                        return 0;
+                    }
+                    return prefetched != null && prefetched.query().filter().equals(currentFilter())
+                            ? prefetched.count()
+                            : (int) taskService.countTasks(currentFilter());
+                },
+                TaskSummary::id
+        );
+        taskGrid.setItems(taskDataProvider);
         taskGrid.setSelectionMode(Grid.SelectionMode.MULTI);
         taskGrid.setSizeFull();
         taskGrid.getStyle()
@@ -189,77 +542,40 @@ public class TaskView extends VerticalLayout {
         taskGrid.setClassName("task-grid");
         taskGrid.setHeightFull();
 
-        taskGrid.addSelectionListener(event -> {
-            deleteSelectedButton.setVisible(!event.getAllSelectedItems().isEmpty());
-        });
-
-        taskGrid.addColumn(Task::getTitle).setHeader("Titel").setAutoWidth(true).setSortable(true).setComparator(Task::getTitle);
+        taskGrid.addColumn(TaskSummary::title).setHeader("Titel").setAutoWidth(true).setSortProperty("title");
         taskGrid.addColumn(task -> {
-            if (task.getDescription().length() > 50) {
-                return task.getDescription().substring(0, 50) + "...";
-            } else {
-                return task.getDescription();
-            }
-        }).setHeader("Beschreibung").setAutoWidth(true).setSortable(true);
-        taskGrid.addColumn(task -> formatter.format(task.getCreatedAt())).setHeader("Erstellt am").setAutoWidth(true).setSortable(true).setComparator(Task::getCreatedAt);
-        taskGrid.addComponentColumn(task -> {
-            Span dueDateSpan;
-
-            if (task.getDueDate() != null) {
-                LocalDate today = LocalDate.now();
-                long daysUntilDue = today.until(task.getDueDate()).getDays();
-
-                dueDateSpan = new Span(dateOnlyFormatter.format(task.getDueDate()));
-
-                if (daysUntilDue <= 3) {
-                    dueDateSpan.getStyle()
-                            .set("color", "#dc3545")
-                            .set("font-weight", "bold");
-                } else {
-                    dueDateSpan.getStyle()
-                            .set("color", "#333");
-                }
+            String description = task.descriptionPreview();
+            if (description != null && description.length() > 50) {
+                return description.substring(0, 50) + "...";
             } else {
-                dueDateSpan = new Span("Nicht festgelegt");
-                dueDateSpan.getStyle().set("color", "#999");
+                return description;
             }
-
-            return dueDateSpan;
-        }).setHeader("Fälligkeitsdatum").setAutoWidth(true).setSortable(true).setComparator(task -> task.getDueDate() != null ? task.getDueDate() : LocalDate.MAX);
-
-        taskGrid.addComponentColumn(task ->
-                setupBadgeEditor(task, "priority", task.getPriority(), List.of("Niedrig", "Mittel", "Hoch", "Sehr hoch"))
+        }).setHeader("Beschreibung").setAutoWidth(true).setSortProperty("description");
+        taskGrid.addColumn(task -> formatter.format(task.createdAt())).setHeader("Erstellt am").setAutoWidth(true).setSortProperty("createdAt");
+        taskGrid.addColumn(LitRenderer.<TaskSummary>of(
+                        "<span class=\"task-grid-due\" ?data-due-soon=\"${item.dueSoon}\" ?data-unset=\"${item.unset}\">${item.dueDate}</span>")
+                .withProperty("dueDate", task -> task.dueDate() != null ? dateOnlyFormatter.format(task.dueDate()) : "Nicht festgelegt")
+                .withProperty("dueSoon", task -> TaskLabels.isDueSoon(task.dueDate()))
+                .withProperty("unset", task -> task.dueDate() == null)
+        ).setHeader("Fälligkeitsdatum").setAutoWidth(true).setSortProperty("dueDate");
+
+        taskGrid.addColumn(badgeRenderer(TaskSummary::priority, TaskLabels::of,
+                task -> openBadgeEditor(task, priorityEditor, task.priority(), "Priorität ändern"))
         ).setHeader("Priorität").setAutoWidth(true);
 
-        taskGrid.addComponentColumn(task ->
-                setupBadgeEditor(task, "status", task.getStatus(), List.of("Offen", "In Bearbeitung", "Erledigt"))
+        taskGrid.addColumn(badgeRenderer(TaskSummary::status, TaskLabels::of,
+                task -> openBadgeEditor(task, statusEditor, task.status(), "Status ändern"))
         ).setHeader("Status").setAutoWidth(true);
 
-        taskGrid.addComponentColumn(task -> {
-            HorizontalLayout actionLayout = new HorizontalLayout();
+        taskGrid.addColumn(LitRenderer.<TaskSummary>of("""
+                        <vaadin-icon class="task-grid-edit" icon="vaadin:edit" title="Bearbeiten" @click="${edit}"></vaadin-icon>
+                        <vaadin-icon class="task-grid-delete" icon="vaadin:trash" title="Löschen" @click="${delete}"></vaadin-icon>
+                        """)
+                .withFunction("edit", this::editTask)
+                .withFunction("delete", this::openDeleteDialog)
+        ).setHeader("Aktionen").setAutoWidth(true);
 
-            Icon editIcon = new Icon(VaadinIcon.EDIT);
-            editIcon.getStyle()
-                    .set("cursor", "pointer")
-                    .set("margin-right", "8px")
-                    .set("color", "#007bff")
-                    .set("transition", "0.2s");
-
-            editIcon.addClickListener(e -> openTaskDialog(task));
-
-            Icon deleteIcon = new Icon(VaadinIcon.TRASH);
-            deleteIcon.getStyle()
-                    .set("cursor", "pointer")
-                    .set("color", "#dc3545")
-                    .set("transition", "0.2s");
-
-            deleteIcon.addClickListener(e -> openDeleteDialog(task));
-
-            actionLayout.add(editIcon, deleteIcon);
-            return actionLayout;
-        }).setHeader("Aktionen").setAutoWidth(true);
-
-        taskGrid.addItemDoubleClickListener(event -> openTaskDialog(event.getItem()));
+        taskGrid.addItemDoubleClickListener(event -> editTask(event.getItem()));
         return taskGrid;
     }
 
@@ -277,15 +593,17 @@ public class TaskView extends VerticalLayout {
                 .set("width", "100%");
 
         statusComboBox.setPlaceholder("Status auswählen");
-        statusComboBox.setItems("Offen", "In Bearbeitung", "Erledigt");
+        statusComboBox.setItems(TaskStatus.values());
+        statusComboBox.setItemLabelGenerator(TaskLabels::of);
         if (selectedTask == null) {
-            statusComboBox.setValue("Offen");
+            statusComboBox.setValue(TaskStatus.OPEN);
         }
 
         priorityField.setPlaceholder("Priorität auswählen");
-        priorityField.setItems("Niedrig", "Mittel", "Hoch", "Sehr hoch");
+        priorityField.setItems(TaskPriority.values());
+        priorityField.setItemLabelGenerator(TaskLabels::of);
         if (selectedTask == null) {
-            priorityField.setValue("Mittel");
+            priorityField.setValue(TaskPriority.MEDIUM);
         }
 
         titleField.setWidthFull();
@@ -297,27 +615,39 @@ public class TaskView extends VerticalLayout {
 
         Button saveButton = new Button("Speichern", e -> {
             if (!titleField.getValue().trim().isEmpty()) {
+                Integer durationMinutes;
+                try {
+                    durationMinutes = TaskLabels.parseDuration(durationField.getValue());
+                } catch (IllegalArgumentException ex) {
+                    Notification.show("Ungültige Dauer (z. B. 1h 30min)!", 3000, Notification.Position.TOP_END);
+                    return;
+                }
                 if (selectedTask == null) {
                     taskService.createTask(
                             titleField.getValue(),
                             descriptionField.getValue(),
-                            durationField.getValue(),
+                            durationMinutes,
                             statusComboBox.getValue(),
                             priorityField.getValue(),
                             dueDateField.getValue()
                     );
                     Notification.show("Task erstellt!", 3000, Notification.Position.TOP_END);
                 } else {
-                    taskService.updateTask(
-                            selectedTask.getId(),
-                            titleField.getValue(),
-                            descriptionField.getValue(),
-                            durationField.getValue(),
-                            statusComboBox.getValue(),
-                            priorityField.getValue(),
-                            dueDateField.getValue()
-                    );
-                    Notification.show("Task aktualisiert!", 3000, Notification.Position.TOP_END);
+                    try {
+                        taskService.updateTask(
+                                selectedTask.getId(),
+                                selectedTask.getVersion(),
+                                titleField.getValue(),
+                                descriptionField.getValue(),
+                                durationMinutes,
+                                statusComboBox.getValue(),
+                                priorityField.getValue(),
+                                dueDateField.getValue()
+                        );
+                        Notification.show("Task aktualisiert!", 3000, Notification.Position.TOP_END);
+                    } catch (OptimisticLockingFailureException ex) {
+                        Notification.show("Task wurde inzwischen geändert. Bitte erneut öffnen.", 4000, Notification.Position.TOP_END);
+                    }
                 }
                 taskDialog.close();
                 refreshGrid();
@@ -359,6 +689,18 @@ public class TaskView extends VerticalLayout {
         taskDialog.add(dialogLayout);
     }
 
+    /**
+     * Loads the full task of a grid row and opens it in the dialog.
+     *
+     * @param summary the summary shown in the grid
+     */
+    private void editTask(TaskSummary summary) {
+        taskService.getTaskById(summary.id()).ifPresentOrElse(this::openTaskDialog, () -> {
+            Notification.show("Task existiert nicht mehr", 3000, Notification.Position.TOP_END);
+            refreshGrid();
+        });
+    }
+
     private void openTaskDialog(Task task) {
         if (task == null) {
             taskDialog.setHeaderTitle("Neuer Task");
@@ -377,9 +719,9 @@ public class TaskView extends VerticalLayout {
             taskIdSpan.setText("ID: " + task.getId());
             titleField.setValue(task.getTitle());
             descriptionField.setValue(task.getDescription());
-            durationField.setValue(task.getDuration() != null ? task.getDuration() : "");
-            priorityField.setValue(task.getPriority() != null ? task.getPriority() : "Mittel");
-            statusComboBox.setValue(task.getStatus() != null ? task.getStatus() : "Offen");
+            durationField.setValue(TaskLabels.formatDuration(task.getDurationMinutes()));
+            priorityField.setValue(task.getPriority() != null ? task.getPriority() : TaskPriority.MEDIUM);
+            statusComboBox.setValue(task.getStatus() != null ? task.getStatus() : TaskStatus.OPEN);
             dueDateField.setValue(task.getDueDate());
             statusComboBox.setVisible(true);
             durationField.setVisible(true);
@@ -387,7 +729,7 @@ public class TaskView extends VerticalLayout {
         taskDialog.open();
     }
 
-    private void openDeleteDialog(Task task) {
+    private void openDeleteDialog(TaskSummary task) {
         Dialog dialog = new Dialog();
         dialog.setHeaderTitle("Task löschen");
 
@@ -397,7 +739,7 @@ public class TaskView extends VerticalLayout {
                 .set("font-size", "1em");
 
         Button deleteButton = new Button("Löschen", e -> {
-            taskService.deleteTask(task.getId());
+            taskService.deleteTask(task.id());
             Notification.show("Task gelöscht!", 3000, Notification.Position.TOP_END);
             refreshGrid();
             dialog.close();
@@ -432,62 +774,201 @@ public class TaskView extends VerticalLayout {
         dialog.open();
     }
 
-    private void refreshGrid() {
-        String keyword = searchField.getValue() != null ? searchField.getValue().toLowerCase() : "";
-        String selectedStatus = statusFilter.getValue();
+    /**
+     * Reads the count and the first page of the grid in parallel on virtual threads and shows
+     * them once both reads completed, unless the grid was refreshed meanwhile.
+     */
+    private void loadGrid() {
+        GridQuery query = new GridQuery(currentFilter(), currentSort(), taskGrid.getPageSize());
+        CompletableFuture<Long> count = taskService.countTasksAsync(query.filter());
+        CompletableFuture<List<TaskSummary>> tasks = taskService.findTasksAsync(query.filter(), 0, query.limit(), query.sort());
+        AsyncLoading.load(this, count.thenCombine(tasks, (total, first) -> new GridResult(query, total.intValue(), first)),
+                result -> {
+                    if (!gridLoaded) {
+                        showGrid(result);
+                    }
+                });
+    }
 
-        taskGrid.setItems(taskService.getUserTasks().stream()
-                .filter(task -> task.getTitle().toLowerCase().contains(keyword))
-                .filter(task -> selectedStatus.equals("Alle") || task.getStatus().equals(selectedStatus))
-                .toList()
-        );
+    /**
+     * Applies a change committed in any session of the user to the grid. A changed task that
+     * still matches the status filter is patched in its row; new and deleted tasks and bulk
+     * changes change the rows and their number, so the grid reads the rows it shows again.
+     *
+     * @param change the committed change
+     */
+    private void applyChange(TaskChange change) {
+        if (!gridLoaded) {
+            return;
+        }
+        TaskStatus status = statusFilter.getValue();
+        if (change.type() == TaskChange.Type.UPDATED && (status == null || status == change.task().status())) {
+            prefetched = null;
+            taskDataProvider.refreshItem(change.task());
+        } else {
+            refreshGrid();
+        }
     }
 
-    private Span setupBadgeEditor(Task task, String field, String value, List<String> options) {
-        Span badge = new Span(value != null ? value : "Keine");
-        badge.getStyle()
-                .set("border-radius", "999px")
-                .set("padding", "4px 12px")
-                .set("font-size", "0.8em")
-                .set("font-weight", "600")
-                .set("color", "white")
-                .set("cursor", "pointer");
-
-        switch (value) {
-            case "Niedrig" -> badge.getStyle().set("background-color", "#28a745");
-            case "Mittel" -> badge.getStyle().set("background", "#ffc107").set("color", "#333");
-            case "Hoch" -> badge.getStyle().set("background-color", "#007bff");
-            case "Sehr hoch" -> badge.getStyle().set("background-color", "#dc3545");
-            case "Offen" -> badge.getStyle().set("background-color", "#28a745");
-            case "In Bearbeitung" -> badge.getStyle().set("background-color", "#ffc107").set("color", "#333");
-            case "Erledigt" -> badge.getStyle().set("background-color", "#17a2b8");
-            default -> badge.getStyle().set("background-color", "#6c757d");
+    /**
+     * @return the IDs of the tasks selected in the grid
+     */
+    private List<Long> selectedIds() {
+        return taskGrid.getSelectedItems().stream().map(TaskSummary::id).toList();
+    }
+
+    /**
+     * Applies a bulk command to all selected tasks with a single call of the service,
+     * however many tasks are selected.
+     *
+     * @param command the command, returning the number of changed tasks
+     */
+    private void applyToSelection(ToIntFunction<List<Long>> command) {
+        List<Long> selected = selectedIds();
+        if (selected.isEmpty()) {
+            Notification.show("⚠️ Keine Tasks ausgewählt", 3000, Notification.Position.TOP_CENTER);
+            return;
         }
+        int changed = command.applyAsInt(selected);
+        Notification.show(changed + " Task(s) aktualisiert", 3000, Notification.Position.TOP_END);
+        refreshGrid();
+    }
+
+    private void refreshGrid() {
+        prefetched = null;
+        setGridLoaded();
+        taskDataProvider.refreshAll();
+    }
+
+    private void setGridLoaded() {
+        gridLoaded = true;
+        loadingBar.setVisible(false);
+    }
+
+    private TaskFilter currentFilter() {
+        return TaskFilter.all()
+                .withKeyword(appliedKeyword)
+                .withStatus(statusFilter.getValue());
+    }
+
+    /**
+     * @return the sort order currently selected in the grid
+     */
+    private Sort currentSort() {
+        List<QuerySortOrder> orders = taskGrid.getSortOrder().stream()
+                .flatMap(order -> order.getSorted().getSortOrder(order.getDirection()))
+                .toList();
+        return VaadinSpringDataHelpers.toSpringDataSort(new Query<>(0, Integer.MAX_VALUE, orders, null, null));
+    }
+
+    /**
+     * Reads the count and the first tasks of a search. Does not access any component, so it can run in the background.
+     *
+     * @param query the search
+     * @return the result of the search
+     */
+    private GridResult readGrid(GridQuery query) {
+        int count = (int) taskService.countTasks(query.filter());
+        List<TaskSummary> tasks = taskService.findTasks(query.filter(), 0, query.limit(), query.sort());
+        return new GridResult(query, count, tasks);
+    }
+
+    /**
+     * Shows the result of a background search; the grid is served from the read-ahead tasks.
+     *
+     * @param result the result of the latest search
+     */
+    private void showGrid(GridResult result) {
+        appliedKeyword = result.query().filter().keyword();
+        prefetched = result;
+        setGridLoaded();
+        taskDataProvider.refreshAll();
+    }
 
-        ComboBox<String> comboBox = new ComboBox<>();
+    /**
+     * Checks if a range requested by the grid can be served from the latest search.
+     *
+     * @param sort   the requested sort order
+     * @param offset the index of the first requested task
+     * @param limit  the number of requested tasks
+     * @return true if the search was read for the current filter and sort order and covers the range
+     */
+    private boolean isPrefetched(Sort sort, int offset, int limit) {
+        return prefetched != null
+                && prefetched.query().filter().equals(currentFilter())
+                && prefetched.query().sort().equals(sort)
+                && (offset + limit <= prefetched.tasks().size() || prefetched.tasks().size() < prefetched.query().limit());
+    }
+
+    /**
+     * Renders an editable badge in the browser; no component is created per row.
+     *
+     * @param value  the badge value of a task
+     * @param labels the labels of the values
+     * @param edit   called when the badge of a task is clicked
+     * @param <T>    the type of the value
+     * @return the renderer of the badge column
+     */
+    private static <T extends Enum<T>> LitRenderer<TaskSummary> badgeRenderer(
+            ValueProvider<TaskSummary, T> value, ItemLabelGenerator<T> labels, SerializableConsumer<TaskSummary> edit) {
+        return LitRenderer.<TaskSummary>of(
+                        "<span class=\"task-badge\" data-value=\"${item.value}\" @click=\"${edit}\">${item.label}</span>")
+                .withProperty("value", task -> value.apply(task) != null ? value.apply(task).name() : "NONE")
+                .withProperty("label", task -> labels.apply(value.apply(task)))
+                .withFunction("edit", edit);
+    }
+
+    /**
+     * Creates the selection of the shared badge editor for one column.
+     *
+     * @param options the values to choose from
+     * @param labels  the labels of the values
+     * @param update  stores the chosen value of the edited task
+     * @param <T>     the type of the value
+     * @return the selection
+     */
+    private <T> ComboBox<T> createBadgeEditor(T[] options, ItemLabelGenerator<T> labels, BiConsumer<TaskSummary, T> update) {
+        ComboBox<T> comboBox = new ComboBox<>();
         comboBox.setItems(options);
-        comboBox.setValue(value);
+        comboBox.setItemLabelGenerator(labels);
         comboBox.setWidth("160px");
 
         comboBox.addValueChangeListener(e -> {
-            if (e.getValue() != null && !e.getValue().equals(value)) {
-                if (field.equals("status")) {
-                    task.setStatus(e.getValue());
-                } else if (field.equals("priority")) {
-                    task.setPriority(e.getValue());
-                }
-                taskService.updateTask(task.getId(), task.getTitle(), task.getDescription(), task.getDuration(), task.getStatus(), task.getPriority(), task.getDueDate());
+            TaskSummary task = editedTask;
+            if (!e.isFromClient() || task == null || e.getValue() == null || e.getValue().equals(e.getOldValue())) {
+                return;
+            }
+            editedTask = null;
+            badgeDialog.close();
+            try {
+                // The grid patches the row when the change is broadcast
+                update.accept(task, e.getValue());
                 Notification.show("Task aktualisiert", 2000, Notification.Position.TOP_END);
-                taskGrid.getDataProvider().refreshItem(task);
+            } catch (OptimisticLockingFailureException ex) {
+                Notification.show("Task wurde inzwischen geändert", 3000, Notification.Position.TOP_END);
+                refreshGrid();
             }
         });
+        return comboBox;
+    }
 
-        ContextMenu contextMenu = new ContextMenu();
-        contextMenu.setOpenOnClick(true);
-        contextMenu.setTarget(badge);
-        contextMenu.add(comboBox);
-
-        return badge;
+    /**
+     * Opens the badge editor, which all rows share, for the badge of a task.
+     *
+     * @param task   the task of the clicked badge
+     * @param editor the selection of the column
+     * @param value  the current value of the badge
+     * @param title  the header of the editor
+     * @param <T>    the type of the value
+     */
+    private <T> void openBadgeEditor(TaskSummary task, ComboBox<T> editor, T value, String title) {
+        editedTask = task;
+        editor.setValue(value);
+        badgeDialog.setHeaderTitle(title);
+        badgeDialog.removeAll();
+        badgeDialog.add(editor);
+        badgeDialog.open();
+        editor.focus();
     }
 
 }
\ No newline at end of file
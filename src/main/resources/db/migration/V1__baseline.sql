@@ -0,0 +1,28 @@
+-- Baseline schema, matching what Hibernate generated while the application still used ddl-auto=update.
+-- IF NOT EXISTS keeps this migration safe for databases created before migrations were introduced.
+
+CREATE TABLE IF NOT EXISTS user (
+    id         integer,
+    active     BOOLEAN DEFAULT true not null,
+    created_at timestamp,
+    email      varchar(255) not null unique,
+    first_name varchar(255),
+    last_name  varchar(255),
+    password   varchar(255),
+    updated_at timestamp,
+    username   varchar(255) not null unique,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS task (
+    id          integer,
+    created_at  timestamp,
+    description varchar(255),
+    due_date    date,
+    duration    varchar(255),
+    priority    varchar(255),
+    status      varchar(255),
+    title       varchar(255),
+    owner_id    bigint,
+    primary key (id)
+);
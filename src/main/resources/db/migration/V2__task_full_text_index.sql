@@ -0,0 +1,23 @@
+-- Full-text index over task titles and descriptions.
+-- External-content FTS5 table kept in sync with the task table by triggers.
+
+CREATE VIRTUAL TABLE IF NOT EXISTS task_fts USING fts5(
+    title, description,
+    content='task', content_rowid='id',
+    tokenize='unicode61 remove_diacritics 2'
+);
+
+CREATE TRIGGER IF NOT EXISTS task_fts_after_insert AFTER INSERT ON task BEGIN
+    INSERT INTO task_fts(rowid, title, description) VALUES (new.id, new.title, new.description);
+END;
+
+CREATE TRIGGER IF NOT EXISTS task_fts_after_delete AFTER DELETE ON task BEGIN
+    INSERT INTO task_fts(task_fts, rowid, title, description) VALUES ('delete', old.id, old.title, old.description);
+END;
+
+CREATE TRIGGER IF NOT EXISTS task_fts_after_update AFTER UPDATE OF title, description ON task BEGIN
+    INSERT INTO task_fts(task_fts, rowid, title, description) VALUES ('delete', old.id, old.title, old.description);
+    INSERT INTO task_fts(rowid, title, description) VALUES (new.id, new.title, new.description);
+END;
+
+INSERT INTO task_fts(task_fts) VALUES ('rebuild');
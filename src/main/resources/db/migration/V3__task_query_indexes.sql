@@ -0,0 +1,7 @@
+-- Indexes for the hot task queries. Verified at startup by QueryPlanVerifier.
+
+-- Status columns, dashboard and due date filters: owner_id = ? AND status = ? AND due_date < ?
+CREATE INDEX IF NOT EXISTS idx_task_owner_status_due_date ON task (owner_id, status, due_date);
+
+-- Task list sorted by creation time: owner_id = ? ORDER BY created_at
+CREATE INDEX IF NOT EXISTS idx_task_owner_created_at ON task (owner_id, created_at);
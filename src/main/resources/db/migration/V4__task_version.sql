@@ -0,0 +1,3 @@
+-- Optimistic locking: every change of a task increments its version (see Task#version).
+
+ALTER TABLE task ADD COLUMN version bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,96 @@
+-- Status and priority become integer codes (see TaskStatus and TaskPriority), the duration
+-- becomes whole minutes. SQLite cannot change column types, so the task table is rebuilt.
+-- Dropping the old table also drops its triggers and indexes, which are recreated below.
+
+CREATE TABLE task_new (
+    id               integer,
+    created_at       timestamp,
+    description      varchar(255),
+    due_date         date,
+    duration_minutes integer,
+    priority         smallint,
+    status           smallint NOT NULL DEFAULT 0,
+    title            varchar(255),
+    owner_id         bigint,
+    version          bigint NOT NULL DEFAULT 0,
+    primary key (id)
+);
+
+-- The duration is parsed like TaskLabels#parseDuration does: "2h", "1,5 h", "1h 30min", "45min",
+-- "45m" and plain numbers, which count as hours, plus the two day labels. Anything else becomes NULL.
+WITH normalized_duration AS (
+    SELECT *, REPLACE(REPLACE(LOWER(TRIM(duration)), ' ', ''), ',', '.') AS normalized
+    FROM task
+), duration_unit AS (
+    SELECT *,
+           CASE
+               WHEN INSTR(normalized, 'h') > 0 THEN SUBSTR(normalized, 1, INSTR(normalized, 'h') - 1)
+               WHEN normalized GLOB '*m' OR normalized GLOB '*min' THEN NULL
+               ELSE normalized
+           END AS hours_text,
+           CASE
+               WHEN INSTR(normalized, 'h') > 0 THEN SUBSTR(normalized, INSTR(normalized, 'h') + 1)
+               WHEN normalized GLOB '*m' OR normalized GLOB '*min' THEN normalized
+               ELSE ''
+           END AS minutes_with_unit
+    FROM normalized_duration
+), duration_parts AS (
+    SELECT *,
+           CASE
+               WHEN minutes_with_unit = '' THEN ''
+               WHEN minutes_with_unit GLOB '*min' THEN SUBSTR(minutes_with_unit, 1, LENGTH(minutes_with_unit) - 3)
+               WHEN minutes_with_unit GLOB '*m' THEN SUBSTR(minutes_with_unit, 1, LENGTH(minutes_with_unit) - 1)
+           END AS minutes_text
+    FROM duration_unit
+)
+INSERT INTO task_new (id, created_at, description, due_date, duration_minutes, priority, status, title, owner_id, version)
+SELECT id,
+       created_at,
+       description,
+       due_date,
+       CASE
+           WHEN normalized IS NULL OR normalized = '' THEN NULL
+           WHEN normalized = 'halbertag' THEN 240
+           WHEN normalized = 'ganzertag' THEN 480
+           WHEN (hours_text IS NULL
+                   OR hours_text GLOB '[0-9]*' AND hours_text GLOB '*[0-9]'
+                      AND hours_text NOT GLOB '*[^0-9.]*' AND hours_text NOT GLOB '*.*.*')
+               AND minutes_text IS NOT NULL AND minutes_text NOT GLOB '*[^0-9]*'
+               AND (hours_text IS NOT NULL OR minutes_text <> '')
+               THEN CAST(ROUND(COALESCE(CAST(hours_text AS REAL), 0) * 60) AS INTEGER)
+                   + COALESCE(CAST(NULLIF(minutes_text, '') AS INTEGER), 0)
+       END,
+       CASE LOWER(TRIM(priority))
+           WHEN 'niedrig' THEN 0
+           WHEN 'mittel' THEN 1
+           WHEN 'hoch' THEN 2
+           WHEN 'sehr hoch' THEN 3
+       END,
+       CASE LOWER(TRIM(status))
+           WHEN 'in bearbeitung' THEN 1
+           WHEN 'erledigt' THEN 2
+           ELSE 0
+       END,
+       title,
+       owner_id,
+       version
+FROM duration_parts;
+
+DROP TABLE task;
+ALTER TABLE task_new RENAME TO task;
+
+CREATE TRIGGER task_fts_after_insert AFTER INSERT ON task BEGIN
+    INSERT INTO task_fts(rowid, title, description) VALUES (new.id, new.title, new.description);
+END;
+
+CREATE TRIGGER task_fts_after_delete AFTER DELETE ON task BEGIN
+    INSERT INTO task_fts(task_fts, rowid, title, description) VALUES ('delete', old.id, old.title, old.description);
+END;
+
+CREATE TRIGGER task_fts_after_update AFTER UPDATE OF title, description ON task BEGIN
+    INSERT INTO task_fts(task_fts, rowid, title, description) VALUES ('delete', old.id, old.title, old.description);
+    INSERT INTO task_fts(rowid, title, description) VALUES (new.id, new.title, new.description);
+END;
+
+CREATE INDEX idx_task_owner_status_due_date ON task (owner_id, status, due_date);
+CREATE INDEX idx_task_owner_created_at ON task (owner_id, created_at);
@@ -0,0 +1,47 @@
+-- Per-owner task counters by status and priority, with the summed duration.
+-- Kept in sync with the task table by triggers, inside the transaction of every task change.
+-- A missing priority is stored as -1, so it can be part of the primary key.
+-- Verified and rebuilt if necessary at startup by TaskCounterService.
+
+CREATE TABLE task_counter (
+    owner_id         bigint   NOT NULL,
+    status           smallint NOT NULL,
+    priority         smallint NOT NULL,
+    task_count       integer  NOT NULL DEFAULT 0,
+    duration_minutes integer  NOT NULL DEFAULT 0,
+    PRIMARY KEY (owner_id, status, priority)
+) WITHOUT ROWID;
+
+CREATE TRIGGER task_counter_after_insert AFTER INSERT ON task WHEN new.owner_id IS NOT NULL BEGIN
+    INSERT INTO task_counter (owner_id, status, priority, task_count, duration_minutes)
+    VALUES (new.owner_id, new.status, IFNULL(new.priority, -1), 1, IFNULL(new.duration_minutes, 0))
+    ON CONFLICT (owner_id, status, priority) DO UPDATE
+        SET task_count = task_count + 1,
+            duration_minutes = duration_minutes + excluded.duration_minutes;
+END;
+
+CREATE TRIGGER task_counter_after_delete AFTER DELETE ON task WHEN old.owner_id IS NOT NULL BEGIN
+    UPDATE task_counter
+    SET task_count = task_count - 1,
+        duration_minutes = duration_minutes - IFNULL(old.duration_minutes, 0)
+    WHERE owner_id = old.owner_id AND status = old.status AND priority = IFNULL(old.priority, -1);
+END;
+
+CREATE TRIGGER task_counter_after_update AFTER UPDATE OF owner_id, status, priority, duration_minutes ON task BEGIN
+    UPDATE task_counter
+    SET task_count = task_count - 1,
+        duration_minutes = duration_minutes - IFNULL(old.duration_minutes, 0)
+    WHERE owner_id = old.owner_id AND status = old.status AND priority = IFNULL(old.priority, -1);
+    INSERT INTO task_counter (owner_id, status, priority, task_count, duration_minutes)
+    SELECT new.owner_id, new.status, IFNULL(new.priority, -1), 1, IFNULL(new.duration_minutes, 0)
+    WHERE new.owner_id IS NOT NULL
+    ON CONFLICT (owner_id, status, priority) DO UPDATE
+        SET task_count = task_count + 1,
+            duration_minutes = duration_minutes + excluded.duration_minutes;
+END;
+
+INSERT INTO task_counter (owner_id, status, priority, task_count, duration_minutes)
+SELECT owner_id, status, IFNULL(priority, -1), COUNT(*), IFNULL(SUM(duration_minutes), 0)
+FROM task
+WHERE owner_id IS NOT NULL
+GROUP BY owner_id, status, IFNULL(priority, -1);
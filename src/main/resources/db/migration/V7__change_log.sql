@@ -0,0 +1,15 @@
+-- Feed of committed task and user changes, for several app instances sharing this database.
+-- Every mutation appends a row in its own transaction; each node tails the rows written by the
+-- other nodes to invalidate its caches and update its open views (see ChangeFeed).
+-- AUTOINCREMENT keeps sequence numbers from being reused after old rows are pruned.
+
+CREATE TABLE change_log (
+    seq         INTEGER     PRIMARY KEY AUTOINCREMENT,
+    node_id     varchar(36) NOT NULL,
+    entity      varchar(8)  NOT NULL,
+    change_type varchar(8)  NOT NULL,
+    entity_id   bigint      NOT NULL,
+    owner_id    bigint,
+    username    varchar(255),
+    created_at  timestamp   NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
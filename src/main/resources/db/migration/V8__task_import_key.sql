@@ -0,0 +1,7 @@
+-- Key of a task created by an import, derived from the imported record (see TaskImporter).
+-- Unique per owner, so importing the same file again skips the tasks it already created.
+-- Tasks created in the app have no key and are not part of the index.
+
+ALTER TABLE task ADD COLUMN import_key varchar(64);
+
+CREATE UNIQUE INDEX ux_task_owner_import_key ON task (owner_id, import_key) WHERE import_key IS NOT NULL;
@@ -0,0 +1,89 @@
+package com.bbzbl.task.data;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Migrates a database with the old free-text durations to the typed columns of V5 and checks
+ * that every duration {@code TaskLabels} formats or parses keeps its minutes, and that anything
+ * else becomes NULL instead of a made-up value.
+ */
+class TaskTypedColumnsMigrationTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void durationsAreConvertedToMinutes() throws SQLException {
+        Map<String, Integer> expected = new LinkedHashMap<>();
+        expected.put("2h", 120);
+        expected.put("1,5 h", 90);
+        expected.put("1.5h", 90);
+        expected.put("1h 30min", 90);
+        expected.put("2h 5min", 125);
+        expected.put("1h30m", 90);
+        expected.put("45min", 45);
+        expected.put("45m", 45);
+        expected.put(" 3 ", 180);
+        expected.put("0,25", 15);
+        expected.put("Halber Tag", 240);
+        expected.put("ganzer tag", 480);
+        expected.put("", null);
+        expected.put("abc", null);
+        expected.put("h", null);
+        expected.put("min", null);
+        expected.put("1h abc", null);
+        expected.put("1.5min", null);
+        expected.put("1..5h", null);
+        expected.put("2 Stunden", null);
+        expected.put(null, null);
+
+        String url = "jdbc:sqlite:" + directory.resolve("taskapp.db");
+        migrate(url, "4");
+        try (Connection connection = DriverManager.getConnection(url);
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO task (id, title, duration, status) VALUES (?, ?, ?, 'Offen')")) {
+            long id = 1;
+            for (String duration : expected.keySet()) {
+                insert.setLong(1, id++);
+                insert.setString(2, duration == null ? "(null)" : duration);
+                insert.setString(3, duration);
+                insert.executeUpdate();
+            }
+        }
+        migrate(url, "5");
+
+        Map<String, Integer> migrated = new HashMap<>();
+        try (Connection connection = DriverManager.getConnection(url);
+             ResultSet rows = connection.createStatement().executeQuery("SELECT title, duration_minutes FROM task")) {
+            while (rows.next()) {
+                String title = rows.getString(1);
+                int minutes = rows.getInt(2);
+                migrated.put("(null)".equals(title) ? null : title, rows.wasNull() ? null : minutes);
+            }
+        }
+        assertThat(migrated).containsExactlyInAnyOrderEntriesOf(expected);
+    }
+
+    private static void migrate(String url, String target) {
+        Flyway.configure()
+                .dataSource(url, null, null)
+                .locations("classpath:db/migration")
+                .target(target)
+                .load()
+                .migrate();
+    }
+}
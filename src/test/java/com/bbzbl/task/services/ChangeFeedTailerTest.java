@@ -0,0 +1,204 @@
+package com.bbzbl.task.services;
+
+import com.bbzbl.task.Application;
+import com.bbzbl.task.data.entity.Task;
+import com.bbzbl.task.data.entity.TaskPriority;
+import com.bbzbl.task.data.entity.TaskStatus;
+import com.bbzbl.task.data.entity.User;
+import com.bbzbl.task.data.repository.TaskSummary;
+import com.bbzbl.task.data.repository.UserRepository;
+import com.bbzbl.task.views.UiAccess;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.Command;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs two instances of the application on one SQLite file, like two JVMs sharing the database,
+ * and checks that a change made on one instance reaches the views and the cache of the other.
+ * The listeners are registered like the views do, and read the task counters on the dispatcher
+ * thread through {@link UiAccess}.
+ */
+class ChangeFeedTailerTest {
+
+    @TempDir
+    static Path directory;
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    private final List<Runnable> subscriptions = new ArrayList<>();
+
+    @BeforeAll
+    static void startNodes() {
+        String url = "jdbc:sqlite:" + directory.resolve("taskapp.db");
+        // Started one after the other, so only the first one migrates the database and creates the admin
+        nodeA = start(url, "node-a");
+        nodeB = start(url, "node-b");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @BeforeEach
+    void authenticate() {
+        User admin = nodeA.getBean(UserRepository.class).findByUsername("admin").orElseThrow();
+        UserDetails userDetails = org.springframework.security.core.userdetails.User.withUsername(admin.getUsername())
+                .password("")
+                .authorities("ROLE_USER")
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+    }
+
+    @AfterEach
+    void unsubscribe() {
+        subscriptions.forEach(Runnable::run);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void changesOfOneNodeArePublishedOnTheOther() throws InterruptedException {
+        TaskService serviceA = nodeA.getBean(TaskService.class);
+        TaskService serviceB = nodeB.getBean(TaskService.class);
+        // Caches the (still empty) task list on node B, which the remote change must invalidate
+        assertThat(serviceB.getUserTasks()).isEmpty();
+        BlockingQueue<Delivery> onB = subscribe(serviceB);
+
+        Task created = serviceA.createTask("Auf Knoten A erstellt", "Beschreibung", 30,
+                TaskStatus.OPEN, TaskPriority.HIGH, LocalDate.now().plusDays(1));
+
+        Delivery creation = await(onB, TaskChange.Type.CREATED);
+        assertThat(creation.change().taskId()).isEqualTo(created.getId());
+        assertThat(creation.change().task().title()).isEqualTo("Auf Knoten A erstellt");
+        assertThat(creation.counts().total()).isEqualTo(1);
+        assertThat(serviceB.getUserTasks()).extracting(TaskSummary::id).containsExactly(created.getId());
+
+        serviceA.deleteTask(created.getId());
+
+        Delivery deletion = await(onB, TaskChange.Type.DELETED);
+        assertThat(deletion.change().taskId()).isEqualTo(created.getId());
+        assertThat(deletion.counts().total()).isZero();
+    }
+
+    @Test
+    void bulkCommandsReachTheViewsOfBothNodes() throws InterruptedException {
+        TaskService serviceA = nodeA.getBean(TaskService.class);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(serviceA.createTask("Bulk " + i, null, null, TaskStatus.OPEN, TaskPriority.LOW, null).getId());
+        }
+        BlockingQueue<Delivery> onA = subscribe(serviceA);
+        BlockingQueue<Delivery> onB = subscribe(nodeB.getBean(TaskService.class));
+
+        assertThat(serviceA.changeStatus(ids, TaskStatus.DONE)).isEqualTo(3);
+
+        // Locally announced as one bulk change; the other node re-publishes small bulk
+        // commands task by task, and reads the counters while applying each of them
+        assertThat(await(onA, TaskChange.Type.BULK).counts().count(TaskStatus.DONE)).isEqualTo(3);
+        await(onB, delivery -> delivery.counts().count(TaskStatus.DONE) == 3);
+
+        assertThat(serviceA.deleteTasks(ids)).isEqualTo(3);
+
+        assertThat(await(onA, TaskChange.Type.BULK).counts().total()).isZero();
+        await(onB, delivery -> delivery.counts().total() == 0);
+    }
+
+    /**
+     * A change as a view received it, with the task counters it read when applying it.
+     */
+    private record Delivery(TaskChange change, TaskCounts counts) {
+    }
+
+    /**
+     * Subscribes to the changes like the views do: the listener runs on the dispatcher thread
+     * and reads the counters through {@link UiAccess}, with the security context of the test.
+     */
+    private BlockingQueue<Delivery> subscribe(TaskService taskService) {
+        Executor access = UiAccess.forCurrentUser(new ImmediateUI());
+        BlockingQueue<Delivery> deliveries = new LinkedBlockingQueue<>();
+        subscriptions.add(taskService.subscribeToChanges(change -> access.execute(
+                () -> deliveries.add(new Delivery(change, taskService.getTaskCounts())))));
+        return deliveries;
+    }
+
+    /**
+     * Waits for the next delivered change of the given type, skipping others.
+     */
+    private static Delivery await(BlockingQueue<Delivery> deliveries, TaskChange.Type type) throws InterruptedException {
+        return await(deliveries, delivery -> delivery.change().type() == type);
+    }
+
+    /**
+     * Waits for the next delivered change matching the condition, skipping others.
+     */
+    private static Delivery await(BlockingQueue<Delivery> deliveries, Predicate<Delivery> condition)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            Delivery delivery = deliveries.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            assertThat(delivery).as("expected change").isNotNull();
+            if (condition.test(delivery)) {
+                return delivery;
+            }
+        }
+    }
+
+    /**
+     * Starts an instance of the application on a random port; passed as arguments, so the
+     * settings override those of {@code application.properties}.
+     */
+    private static ConfigurableApplicationContext start(String url, String nodeId) {
+        return new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.SERVLET)
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + url,
+                        "--taskapp.change-feed.node-id=" + nodeId,
+                        "--taskapp.change-feed.poll-interval-ms=50",
+                        "--spring.devtools.restart.enabled=false");
+    }
+
+    /**
+     * A UI that runs the commands right away on the calling thread, like {@link UI#access} does
+     * when the session is not locked.
+     */
+    private static class ImmediateUI extends UI {
+
+        @Override
+        public Future<Void> access(Command command) {
+            command.execute();
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}